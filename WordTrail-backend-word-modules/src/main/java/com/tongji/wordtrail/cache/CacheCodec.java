@@ -0,0 +1,44 @@
+package com.tongji.wordtrail.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * 远端缓存中值的编码方式
+ */
+public interface CacheCodec<V> {
+
+    String encode(V value);
+
+    V decode(String encoded);
+
+    /**
+     * 使用 Jackson 编码为 JSON
+     */
+    static <V> CacheCodec<V> json(ObjectMapper objectMapper, JavaType type) {
+        return new CacheCodec<V>() {
+            @Override
+            public String encode(V value) {
+                try {
+                    return objectMapper.writeValueAsString(value);
+                } catch (JsonProcessingException e) {
+                    throw new IllegalStateException("Failed to encode cache value", e);
+                }
+            }
+
+            @Override
+            public V decode(String encoded) {
+                try {
+                    return objectMapper.readValue(encoded, type);
+                } catch (JsonProcessingException e) {
+                    throw new IllegalStateException("Failed to decode cache value", e);
+                }
+            }
+        };
+    }
+
+    static <V> CacheCodec<V> json(ObjectMapper objectMapper, Class<V> type) {
+        return json(objectMapper, objectMapper.constructType(type));
+    }
+}
@@ -0,0 +1,19 @@
+package com.tongji.wordtrail.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 跨实例的缓存失效消息
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheInvalidation {
+    // 发出消息的实例，收到自己发出的消息时忽略
+    private String sourceNode;
+    private String region;
+    // 为 null 时表示整个区域失效
+    private String key;
+}
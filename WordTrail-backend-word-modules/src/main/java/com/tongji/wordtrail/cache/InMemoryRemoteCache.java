@@ -0,0 +1,85 @@
+package com.tongji.wordtrail.cache;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * 进程内的远端缓存替身：单实例部署和测试时使用，不依赖外部服务
+ * 多个 TwoTierCacheManager 共享同一个实例即可模拟多个节点
+ */
+@Slf4j
+public class InMemoryRemoteCache implements RemoteCache {
+
+    private final Map<String, Entry> store = new ConcurrentHashMap<>();
+    private final List<Consumer<CacheInvalidation>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String get(String key) {
+        Entry entry = store.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            store.remove(key, entry);
+            return null;
+        }
+        return entry.value;
+    }
+
+    @Override
+    public Map<String, String> getAll(Collection<String> keys) {
+        Map<String, String> result = new HashMap<>();
+        for (String key : keys) {
+            String value = get(key);
+            if (value != null) {
+                result.put(key, value);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void put(String key, String value, long ttlMillis) {
+        store.put(key, new Entry(value, System.currentTimeMillis() + ttlMillis));
+    }
+
+    @Override
+    public void evict(String key) {
+        store.remove(key);
+    }
+
+    @Override
+    public void evictByPrefix(String prefix) {
+        store.keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    @Override
+    public void publish(CacheInvalidation message) {
+        for (Consumer<CacheInvalidation> listener : listeners) {
+            try {
+                listener.accept(message);
+            } catch (RuntimeException e) {
+                log.warn("Cache invalidation listener failed for {}", message, e);
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidation> listener) {
+        listeners.add(listener);
+    }
+
+    private static class Entry {
+        final String value;
+        final long expiresAt;
+
+        Entry(String value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
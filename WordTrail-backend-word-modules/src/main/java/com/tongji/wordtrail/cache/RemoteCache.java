@@ -0,0 +1,39 @@
+package com.tongji.wordtrail.cache;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 第二级（多个实例共享的）缓存，例如 Redis
+ * 值以编码后的字符串保存；失效消息广播给所有实例，由各实例清理自己的近端缓存
+ * 没有配置其他实现时使用进程内的 InMemoryRemoteCache
+ */
+public interface RemoteCache {
+
+    /**
+     * @return 编码后的值，不存在或已过期时返回 null
+     */
+    String get(String key);
+
+    /**
+     * @return 存在的键及其值，不存在的键不包含在结果中
+     */
+    Map<String, String> getAll(Collection<String> keys);
+
+    void put(String key, String value, long ttlMillis);
+
+    void evict(String key);
+
+    /**
+     * 删除以 prefix 开头的所有键
+     */
+    void evictByPrefix(String prefix);
+
+    /**
+     * 向所有实例（包括自己）广播失效消息
+     */
+    void publish(CacheInvalidation message);
+
+    void subscribe(Consumer<CacheInvalidation> listener);
+}
@@ -0,0 +1,296 @@
+package com.tongji.wordtrail.cache;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 两级缓存的一个区域：近端（本实例内存，LRU + 较短 TTL）→ 远端（多实例共享）→ 数据库
+ * 失效时同时清理两级缓存，并广播消息让其他实例清理各自的近端缓存
+ * 由 TwoTierCacheManager 创建；缓存中的对象是共享的，调用方不应修改返回的对象
+ */
+@Slf4j
+public class TwoTierCache<V> {
+
+    private final String region;
+    private final int maxSize;
+    private final long nearTtlMillis;
+    private final long remoteTtlMillis;
+    private final CacheCodec<V> codec;
+    private final RemoteCache remote;
+    private final String nodeId;
+    private final Map<String, NearEntry<V>> near;
+
+    private final AtomicLong nearHits = new AtomicLong();
+    private final AtomicLong remoteHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    // 每次失效时递增，读取过程中发生过失效的结果不写入缓存，避免旧数据覆盖失效
+    private final AtomicLong invalidations = new AtomicLong();
+
+    TwoTierCache(String region, int maxSize, long nearTtlMillis, long remoteTtlMillis,
+                 CacheCodec<V> codec, RemoteCache remote, String nodeId) {
+        this.region = region;
+        this.maxSize = maxSize;
+        this.nearTtlMillis = nearTtlMillis;
+        this.remoteTtlMillis = remoteTtlMillis;
+        this.codec = codec;
+        this.remote = remote;
+        this.nodeId = nodeId;
+        this.near = new LinkedHashMap<String, NearEntry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, NearEntry<V>> eldest) {
+                if (size() > TwoTierCache.this.maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    /**
+     * 读取单个值
+     * @param loader 两级缓存都未命中时从数据库读取，不存在时返回 null（不缓存）
+     * @return 值，不存在时返回 null
+     */
+    public V get(String key, Function<String, V> loader) {
+        V cached = getNear(key);
+        if (cached != null) {
+            nearHits.incrementAndGet();
+            return cached;
+        }
+
+        long version = invalidations.get();
+        V value = decode(key, remote.get(remoteKey(key)));
+        if (value != null) {
+            remoteHits.incrementAndGet();
+            putNear(Collections.singletonMap(key, value), version);
+            return value;
+        }
+
+        misses.incrementAndGet();
+        value = loader.apply(key);
+        if (value != null) {
+            putBoth(Collections.singletonMap(key, value), version);
+        }
+        return value;
+    }
+
+    /**
+     * 批量读取，依次查询近端、远端，只为两级都没有的键调用 loader
+     * @param loader 按键批量读取，返回存在的键及其值
+     * @return 存在的键及其值，按 keys 的顺序排列
+     */
+    public Map<String, V> getAll(Collection<String> keys, Function<Collection<String>, Map<String, V>> loader) {
+        Set<String> uniqueKeys = new LinkedHashSet<>(keys);
+        Map<String, V> found = new HashMap<>(uniqueKeys.size() * 4 / 3 + 1);
+        List<String> missing = new ArrayList<>();
+
+        long now = System.currentTimeMillis();
+        synchronized (near) {
+            for (String key : uniqueKeys) {
+                V cached = nearValue(key, now);
+                if (cached != null) {
+                    found.put(key, cached);
+                } else {
+                    missing.add(key);
+                }
+            }
+        }
+        nearHits.addAndGet(found.size());
+
+        if (!missing.isEmpty()) {
+            long version = invalidations.get();
+
+            Map<String, V> fromRemote = new HashMap<>();
+            List<String> remoteKeys = new ArrayList<>(missing.size());
+            for (String key : missing) {
+                remoteKeys.add(remoteKey(key));
+            }
+            Map<String, String> encoded = remote.getAll(remoteKeys);
+            for (String key : missing) {
+                V value = decode(key, encoded.get(remoteKey(key)));
+                if (value != null) {
+                    fromRemote.put(key, value);
+                }
+            }
+            remoteHits.addAndGet(fromRemote.size());
+            found.putAll(fromRemote);
+            putNear(fromRemote, version);
+
+            List<String> toLoad = new ArrayList<>();
+            for (String key : missing) {
+                if (!fromRemote.containsKey(key)) {
+                    toLoad.add(key);
+                }
+            }
+            if (!toLoad.isEmpty()) {
+                misses.addAndGet(toLoad.size());
+                Map<String, V> loaded = loader.apply(toLoad);
+                found.putAll(loaded);
+                putBoth(loaded, version);
+            }
+        }
+
+        Map<String, V> result = new LinkedHashMap<>();
+        for (String key : uniqueKeys) {
+            V value = found.get(key);
+            if (value != null) {
+                result.put(key, value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 数据变更后使键失效（两级缓存，并通知其他实例）
+     */
+    public void invalidate(String key) {
+        if (key == null) {
+            return;
+        }
+        invalidations.incrementAndGet();
+        synchronized (near) {
+            near.remove(key);
+        }
+        remote.evict(remoteKey(key));
+        remote.publish(new CacheInvalidation(nodeId, region, key));
+    }
+
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        synchronized (near) {
+            near.clear();
+        }
+        remote.evictByPrefix(region + ":");
+        remote.publish(new CacheInvalidation(nodeId, region, null));
+    }
+
+    /**
+     * 收到其他实例的失效消息，只清理本实例的近端缓存
+     */
+    void onInvalidation(CacheInvalidation message) {
+        invalidations.incrementAndGet();
+        synchronized (near) {
+            if (message.getKey() == null) {
+                near.clear();
+            } else {
+                near.remove(message.getKey());
+            }
+        }
+    }
+
+    /**
+     * 缓存统计：近端命中、远端命中、未命中、近端淘汰次数、近端大小与命中率
+     */
+    public Map<String, Object> stats() {
+        long nearHitCount = nearHits.get();
+        long remoteHitCount = remoteHits.get();
+        long missCount = misses.get();
+        long requests = nearHitCount + remoteHitCount + missCount;
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("nearHits", nearHitCount);
+        stats.put("remoteHits", remoteHitCount);
+        stats.put("hits", nearHitCount + remoteHitCount);
+        stats.put("misses", missCount);
+        stats.put("evictions", evictions.get());
+        stats.put("size", size());
+        stats.put("maxSize", maxSize);
+        stats.put("hitRatio", requests == 0 ? 0.0 : (double) (nearHitCount + remoteHitCount) / requests);
+        return stats;
+    }
+
+    public int size() {
+        synchronized (near) {
+            return near.size();
+        }
+    }
+
+    private V getNear(String key) {
+        long now = System.currentTimeMillis();
+        synchronized (near) {
+            return nearValue(key, now);
+        }
+    }
+
+    // 调用方持有 near 的锁
+    private V nearValue(String key, long now) {
+        NearEntry<V> entry = near.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt <= now) {
+            near.remove(key);
+            return null;
+        }
+        return entry.value;
+    }
+
+    private void putNear(Map<String, V> values, long version) {
+        if (values.isEmpty()) {
+            return;
+        }
+        long expiresAt = System.currentTimeMillis() + nearTtlMillis;
+        synchronized (near) {
+            if (invalidations.get() != version) {
+                return;
+            }
+            for (Map.Entry<String, V> entry : values.entrySet()) {
+                near.put(entry.getKey(), new NearEntry<>(entry.getValue(), expiresAt));
+            }
+        }
+    }
+
+    private void putBoth(Map<String, V> values, long version) {
+        if (values.isEmpty() || invalidations.get() != version) {
+            return;
+        }
+        for (Map.Entry<String, V> entry : values.entrySet()) {
+            remote.put(remoteKey(entry.getKey()), codec.encode(entry.getValue()), remoteTtlMillis);
+        }
+        // 检查与写入远端之间可能发生失效，写入后再检查一次，撤回可能已过期的值，避免其在远端保留整个 TTL
+        if (invalidations.get() != version) {
+            for (String key : values.keySet()) {
+                remote.evict(remoteKey(key));
+            }
+            return;
+        }
+        putNear(values, version);
+    }
+
+    private V decode(String key, String encoded) {
+        if (encoded == null) {
+            return null;
+        }
+        try {
+            return codec.decode(encoded);
+        } catch (RuntimeException e) {
+            // 模型字段变更后旧的缓存值可能无法解码，当作未命中处理
+            log.warn("Dropping undecodable cache entry {}:{}", region, key, e);
+            remote.evict(remoteKey(key));
+            return null;
+        }
+    }
+
+    private String remoteKey(String key) {
+        return region + ":" + key;
+    }
+
+    private static class NearEntry<V> {
+        final V value;
+        final long expiresAt;
+
+        NearEntry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
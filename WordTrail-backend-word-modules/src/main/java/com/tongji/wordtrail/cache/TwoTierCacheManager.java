@@ -0,0 +1,72 @@
+package com.tongji.wordtrail.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 创建并管理两级缓存区域，接收其他实例广播的失效消息并转发给对应区域
+ */
+@Component
+@Slf4j
+public class TwoTierCacheManager {
+
+    private final RemoteCache remoteCache;
+    private final long nearTtlMillis;
+    private final long remoteTtlMillis;
+    // 本实例的标识，用于忽略自己发出的失效消息
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, TwoTierCache<?>> caches = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TwoTierCacheManager(RemoteCache remoteCache,
+                               @Value("${wordtrail.cache.near-ttl-seconds:60}") long nearTtlSeconds,
+                               @Value("${wordtrail.cache.remote-ttl-seconds:600}") long remoteTtlSeconds) {
+        this.remoteCache = remoteCache;
+        this.nearTtlMillis = nearTtlSeconds * 1000;
+        this.remoteTtlMillis = remoteTtlSeconds * 1000;
+        remoteCache.subscribe(this::onInvalidation);
+    }
+
+    /**
+     * 创建缓存区域
+     * @param region 区域名，同时作为远端缓存键的前缀，所有实例上必须一致
+     * @param maxSize 近端缓存的最大条目数
+     * @param codec 远端缓存中值的编码方式
+     * @throws IllegalArgumentException 区域已存在
+     */
+    public <V> TwoTierCache<V> create(String region, int maxSize, CacheCodec<V> codec) {
+        TwoTierCache<V> cache = new TwoTierCache<>(region, maxSize, nearTtlMillis, remoteTtlMillis,
+                codec, remoteCache, nodeId);
+        if (caches.putIfAbsent(region, cache) != null) {
+            throw new IllegalArgumentException("Cache region already exists: " + region);
+        }
+        return cache;
+    }
+
+    /**
+     * 所有区域的缓存统计
+     */
+    public Map<String, Map<String, Object>> stats() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        caches.forEach((region, cache) -> stats.put(region, cache.stats()));
+        return stats;
+    }
+
+    private void onInvalidation(CacheInvalidation message) {
+        if (nodeId.equals(message.getSourceNode())) {
+            return;
+        }
+        TwoTierCache<?> cache = caches.get(message.getRegion());
+        if (cache != null) {
+            log.debug("Received cache invalidation {}:{}", message.getRegion(), message.getKey());
+            cache.onInvalidation(message);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.tongji.wordtrail.config;
+
+import com.tongji.wordtrail.cache.InMemoryRemoteCache;
+import com.tongji.wordtrail.cache.RemoteCache;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class CacheConfig {
+
+    /**
+     * 没有配置共享缓存（例如 Redis 实现的 RemoteCache）时使用进程内替身
+     */
+    @Bean
+    @ConditionalOnMissingBean(RemoteCache.class)
+    public RemoteCache remoteCache() {
+        return new InMemoryRemoteCache();
+    }
+}
@@ -0,0 +1,300 @@
+package com.tongji.wordtrail.config;
+
+import com.mongodb.client.model.Filters;
+import com.tongji.wordtrail.model.LearningRecord;
+import com.tongji.wordtrail.model.Post;
+import com.tongji.wordtrail.model.ReviewHistoryArchive;
+import com.tongji.wordtrail.model.SystemWordbook;
+import com.tongji.wordtrail.model.UserWordbook;
+import com.tongji.wordtrail.model.Vote;
+import com.tongji.wordtrail.model.WordLearningProgress;
+import com.tongji.wordtrail.model.Words;
+import com.tongji.wordtrail.service.CollectionCountService;
+import com.tongji.wordtrail.service.CommunityStatsService;
+import com.tongji.wordtrail.service.ConfusionIndexService;
+import com.tongji.wordtrail.service.SystemWordbookService;
+import com.tongji.wordtrail.service.VoteService;
+import com.tongji.wordtrail.service.WordbookIndexService;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * 旧数据迁移：在唯一索引创建之前清理旧版本写入的重复数据（投票、单词），否则唯一索引无法创建
+ * 由 MongoIndexInitializer 在实体的索引缺失时调用，迁移完成并建好索引后不会再执行
+ */
+@Component
+@Slf4j
+public class LegacyDataMigration {
+
+    private static final int DELETE_BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final CommunityStatsService communityStatsService;
+    private final WordbookIndexService wordbookIndexService;
+    private final SystemWordbookService systemWordbookService;
+    private final ConfusionIndexService confusionIndexService;
+    private final CollectionCountService collectionCountService;
+
+    @Autowired
+    public LegacyDataMigration(MongoTemplate mongoTemplate, CommunityStatsService communityStatsService,
+                               WordbookIndexService wordbookIndexService, SystemWordbookService systemWordbookService,
+                               ConfusionIndexService confusionIndexService, CollectionCountService collectionCountService) {
+        this.mongoTemplate = mongoTemplate;
+        this.communityStatsService = communityStatsService;
+        this.wordbookIndexService = wordbookIndexService;
+        this.systemWordbookService = systemWordbookService;
+        this.confusionIndexService = confusionIndexService;
+        this.collectionCountService = collectionCountService;
+    }
+
+    /**
+     * 创建 entity 上声明的索引之前执行对应的迁移
+     */
+    public void beforeIndexes(Class<?> entity) {
+        if (entity == Vote.class) {
+            migrateVotes(null);
+        } else if (entity == Words.class) {
+            migrateWords(null);
+        }
+    }
+
+    /**
+     * 旧版本导入只按导入前的查询结果去重，并发导入可能写入多个相同 (word, language) 的单词
+     * 每组只保留最早的一条（_id 最小），把词书、学习进度、复习归档和学习记录中的引用改为保留的单词后删除其余单词
+     * @param languages 只迁移这些语言的单词，为 null 时迁移全部
+     * @return 删除的单词数
+     */
+    public long migrateWords(Collection<String> languages) {
+        Criteria scope = languages == null ? null : Criteria.where("language").in(languages);
+        String words = mongoTemplate.getCollectionName(Words.class);
+
+        Aggregation duplicates = Aggregation.newAggregation(scoped(scope,
+                Aggregation.sort(Sort.Direction.ASC, "_id"),
+                Aggregation.group("word", "language").first("_id").as("keep").push("_id").as("ids")
+                        .count().as("count"),
+                Aggregation.match(Criteria.where("count").gt(1))))
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+        // 重复单词 _id -> 保留的单词 _id
+        Map<ObjectId, ObjectId> replacements = new HashMap<>();
+        long removed = 0;
+        for (Document row : mongoTemplate.aggregate(duplicates, words, Document.class)) {
+            ObjectId keep = row.getObjectId("keep");
+            for (ObjectId id : row.getList("ids", ObjectId.class)) {
+                if (!id.equals(keep)) {
+                    replacements.put(id, keep);
+                }
+            }
+            if (replacements.size() >= DELETE_BATCH_SIZE) {
+                removed += replaceWords(replacements);
+            }
+        }
+        removed += replaceWords(replacements);
+
+        if (removed > 0) {
+            collectionCountService.invalidate(words);
+        }
+        log.info("Migrated words: removed {} duplicate words", removed);
+        return removed;
+    }
+
+    /**
+     * 把对重复单词的引用改为保留的单词，然后删除重复单词
+     */
+    private long replaceWords(Map<ObjectId, ObjectId> replacements) {
+        if (replacements.isEmpty()) {
+            return 0;
+        }
+        Set<ObjectId> stale = replacements.keySet();
+
+        for (ObjectId bookId : replaceInWordbooks(SystemWordbook.class, replacements)) {
+            wordbookIndexService.invalidate(bookId);
+            systemWordbookService.evictWordbookCache(bookId.toHexString());
+        }
+        replaceInWordbooks(UserWordbook.class, replacements);
+
+        // 学习进度有 {userId, wordId} 唯一索引：用户已有保留单词的进度时删除重复单词的进度
+        Query progressQuery = new Query(Criteria.where("wordId").in(stale));
+        progressQuery.fields().include("wordId");
+        for (WordLearningProgress progress : mongoTemplate.find(progressQuery, WordLearningProgress.class)) {
+            Query byId = new Query(Criteria.where("_id").is(progress.getId()));
+            try {
+                mongoTemplate.updateFirst(byId, new Update().set("wordId", replacements.get(progress.getWordId())),
+                        WordLearningProgress.class);
+            } catch (DuplicateKeyException e) {
+                mongoTemplate.remove(byId, WordLearningProgress.class);
+            }
+        }
+
+        for (Map.Entry<ObjectId, ObjectId> replacement : replacements.entrySet()) {
+            mongoTemplate.updateMulti(new Query(Criteria.where("wordId").is(replacement.getKey())),
+                    new Update().set("wordId", replacement.getValue()), ReviewHistoryArchive.class);
+            mongoTemplate.updateMulti(new Query(Criteria.where("words.wordId").is(replacement.getKey())),
+                    new Update().set("words.$[detail].wordId", replacement.getValue())
+                            .filterArray(Criteria.where("detail.wordId").is(replacement.getKey())),
+                    LearningRecord.class);
+            confusionIndexService.remove(replacement.getKey());
+        }
+
+        long deleted = mongoTemplate.remove(new Query(Criteria.where("_id").in(stale)), Words.class).getDeletedCount();
+        replacements.clear();
+        return deleted;
+    }
+
+    /**
+     * 替换词书中的重复单词，保持原有顺序并去掉替换后重复的 _id
+     * @return 被修改的词书 _id
+     */
+    private List<ObjectId> replaceInWordbooks(Class<?> wordbook, Map<ObjectId, ObjectId> replacements) {
+        String collection = mongoTemplate.getCollectionName(wordbook);
+        Query bookQuery = new Query(Criteria.where("words").in(replacements.keySet()));
+        bookQuery.fields().include("words");
+        List<ObjectId> updated = new ArrayList<>();
+        for (Document book : mongoTemplate.find(bookQuery, Document.class, collection)) {
+            Set<Object> wordIds = new LinkedHashSet<>();
+            for (Object id : book.getList("words", Object.class)) {
+                Object replacement = replacements.get(id);
+                wordIds.add(replacement != null ? replacement : id);
+            }
+            mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(book.get("_id"))),
+                    new Update().set("words", new ArrayList<>(wordIds)), collection);
+            updated.add(book.getObjectId("_id"));
+        }
+        return updated;
+    }
+
+    /**
+     * 旧版本每次点击都插入一条投票记录（取消投票时 upvote 为 null），同一用户对同一帖子可能有多条记录
+     * 每个 {postId, userId} 只保留最新的一条，删除取消投票的记录，
+     * 再按剩下的投票重新计算帖子的 like / dislike / voteCount 和作者的社区统计
+     * @param postIds 只迁移这些帖子的投票，为 null 时迁移全部
+     * @return 删除的投票记录数
+     */
+    public long migrateVotes(Collection<String> postIds) {
+        Criteria scope = postIds == null ? null : Criteria.where("postId").in(postIds);
+        String votes = mongoTemplate.getCollectionName(Vote.class);
+
+        Aggregation duplicates = Aggregation.newAggregation(scoped(scope,
+                Aggregation.sort(Sort.Direction.DESC, "voteTime").and(Sort.Direction.DESC, "_id"),
+                Aggregation.group("postId", "userId").first("_id").as("keep").push("_id").as("ids")
+                        .count().as("count"),
+                Aggregation.match(Criteria.where("count").gt(1))))
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+        List<Object> stale = new ArrayList<>();
+        long removed = 0;
+        for (Document row : mongoTemplate.aggregate(duplicates, votes, Document.class)) {
+            Object keep = row.get("keep");
+            for (Object id : row.getList("ids", Object.class)) {
+                if (!id.equals(keep)) {
+                    stale.add(id);
+                }
+            }
+            if (stale.size() >= DELETE_BATCH_SIZE) {
+                removed += deleteByIds(votes, stale);
+            }
+        }
+        removed += deleteByIds(votes, stale);
+
+        Criteria cancelled = Criteria.where("upvote").nin(VoteService.UPVOTE, VoteService.DOWNVOTE);
+        removed += mongoTemplate.remove(new Query(scope == null ? cancelled
+                : new Criteria().andOperator(scope, cancelled)), Vote.class).getDeletedCount();
+
+        Set<String> authors = recountPostVotes(scope, postIds);
+        if (postIds == null) {
+            communityStatsService.rebuild();
+        } else if (!authors.isEmpty()) {
+            communityStatsService.rebuild(authors);
+        }
+        log.info("Migrated votes: removed {} duplicate or cancelled vote records", removed);
+        return removed;
+    }
+
+    /**
+     * 按投票记录重新计算帖子的计数
+     * @return 计数被修改的帖子作者
+     */
+    private Set<String> recountPostVotes(Criteria scope, Collection<String> postIds) {
+        Aggregation countsByPost = Aggregation.newAggregation(scoped(scope,
+                Aggregation.group("postId")
+                        .sum(ConditionalOperators.when(Criteria.where("upvote").is(VoteService.UPVOTE)).then(1).otherwise(0))
+                        .as("like")
+                        .sum(ConditionalOperators.when(Criteria.where("upvote").is(VoteService.DOWNVOTE)).then(1).otherwise(0))
+                        .as("dislike")));
+        Map<String, int[]> counts = new HashMap<>();
+        for (Document row : mongoTemplate.aggregate(countsByPost, mongoTemplate.getCollectionName(Vote.class), Document.class)) {
+            Object postId = row.get("_id");
+            if (postId != null) {
+                counts.put(postId.toString(), new int[]{row.getInteger("like", 0), row.getInteger("dislike", 0)});
+            }
+        }
+
+        Set<String> targets = new HashSet<>(counts.keySet());
+        // 没有剩余投票但计数不为 0 的帖子归零
+        Criteria nonZero = new Criteria().orOperator(Criteria.where("like").ne(0),
+                Criteria.where("dislike").ne(0), Criteria.where("voteCount").ne(0));
+        Criteria withoutVotes = new Criteria().andOperator(
+                postIds == null ? Criteria.where("_id").nin(counts.keySet()) : Criteria.where("_id").in(postIds),
+                nonZero);
+        Query zeroQuery = new Query(withoutVotes);
+        zeroQuery.fields().include("_id");
+        for (Post post : mongoTemplate.find(zeroQuery, Post.class)) {
+            if (!counts.containsKey(post.getId())) {
+                targets.add(post.getId());
+            }
+        }
+
+        Set<String> authors = new HashSet<>();
+        if (targets.isEmpty()) {
+            return authors;
+        }
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Post.class);
+        for (String postId : targets) {
+            int[] count = counts.getOrDefault(postId, new int[2]);
+            bulkOps.updateOne(new Query(Criteria.where("_id").is(postId)),
+                    new Update().set("like", count[0]).set("dislike", count[1]).set("voteCount", count[0] - count[1]));
+        }
+        bulkOps.execute();
+
+        Query authorQuery = new Query(Criteria.where("_id").in(targets));
+        authorQuery.fields().include("userId");
+        for (Post post : mongoTemplate.find(authorQuery, Post.class)) {
+            if (post.getUserId() != null) {
+                authors.add(post.getUserId());
+            }
+        }
+        return authors;
+    }
+
+    private long deleteByIds(String collection, List<Object> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        long deleted = mongoTemplate.getCollection(collection).deleteMany(Filters.in("_id", ids)).getDeletedCount();
+        ids.clear();
+        return deleted;
+    }
+
+    private static List<AggregationOperation> scoped(Criteria scope, AggregationOperation... operations) {
+        List<AggregationOperation> pipeline = new ArrayList<>();
+        if (scope != null) {
+            pipeline.add(Aggregation.match(scope));
+        }
+        pipeline.addAll(Arrays.asList(operations));
+        return pipeline;
+    }
+}
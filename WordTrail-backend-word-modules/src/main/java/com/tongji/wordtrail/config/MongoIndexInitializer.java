@@ -0,0 +1,163 @@
+package com.tongji.wordtrail.config;
+
+import com.tongji.wordtrail.model.Comment;
+import com.tongji.wordtrail.model.Post;
+import com.tongji.wordtrail.model.ReviewHistoryArchive;
+import com.tongji.wordtrail.model.Vote;
+import com.tongji.wordtrail.model.WordLearningProgress;
+import com.tongji.wordtrail.model.Words;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * MongoDB 索引管理
+ * 启动时根据实体类上的 @CompoundIndex / @Indexed 声明创建缺失的索引，
+ * 并报告仍然缺失（创建失败）和从未被使用的索引
+ */
+@Component
+@Slf4j
+public class MongoIndexInitializer {
+
+    /**
+     * 需要管理索引的实体类，新增热点查询时在对应实体上声明索引并加到这里
+     */
+    static final List<Class<?>> INDEXED_ENTITIES = Arrays.asList(
+            WordLearningProgress.class,
+            ReviewHistoryArchive.class,
+            Words.class,
+            Vote.class,
+            Post.class,
+            Comment.class
+    );
+
+    private final MongoTemplate mongoTemplate;
+    private final LegacyDataMigration legacyDataMigration;
+    private final IndexResolver indexResolver;
+
+    @Autowired
+    public MongoIndexInitializer(MongoTemplate mongoTemplate, LegacyDataMigration legacyDataMigration) {
+        this.mongoTemplate = mongoTemplate;
+        this.legacyDataMigration = legacyDataMigration;
+        this.indexResolver = new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initIndexes() {
+        for (Class<?> entity : INDEXED_ENTITIES) {
+            try {
+                // 索引缺失（首次部署或上次创建失败）时先清理会导致唯一索引创建失败的旧数据
+                if (!findMissingIndexes(entity).isEmpty()) {
+                    legacyDataMigration.beforeIndexes(entity);
+                }
+                ensureIndexes(entity);
+                List<String> missing = findMissingIndexes(entity);
+                if (!missing.isEmpty()) {
+                    log.error("Missing indexes on {}: {}", mongoTemplate.getCollectionName(entity), missing);
+                }
+                List<String> unused = findUnusedIndexes(entity);
+                if (!unused.isEmpty()) {
+                    log.warn("Unused indexes on {}: {}", mongoTemplate.getCollectionName(entity), unused);
+                }
+            } catch (Exception e) {
+                log.error("Failed to verify indexes for {}", entity.getSimpleName(), e);
+            }
+        }
+    }
+
+    /**
+     * 创建实体上声明的索引，已存在的索引不会重复创建
+     * 同名但字段不同、或字段相同但唯一性不同的旧索引（修改了索引声明）会先删除再按声明重建
+     * 唯一索引在集合中已有重复数据时会创建失败，启动时由 LegacyDataMigration 先清理重复数据
+     */
+    public void ensureIndexes(Class<?> entity) {
+        IndexOperations indexOps = mongoTemplate.indexOps(entity);
+        for (IndexDefinition definition : indexResolver.resolveIndexFor(entity)) {
+            try {
+                boolean unique = Boolean.TRUE.equals(definition.getIndexOptions().get("unique"));
+                Document keys = indexKeys(definition);
+                Object name = definition.getIndexOptions().get("name");
+                for (IndexInfo info : indexOps.getIndexInfo()) {
+                    boolean sameKeys = indexKeys(info).equals(keys);
+                    boolean outdated = sameKeys ? info.isUnique() != unique : info.getName().equals(name);
+                    if (outdated) {
+                        indexOps.dropIndex(info.getName());
+                    }
+                }
+                indexOps.ensureIndex(definition);
+            } catch (Exception e) {
+                log.error("Failed to create index {} on {}", definition.getIndexOptions(),
+                        mongoTemplate.getCollectionName(entity), e);
+            }
+        }
+    }
+
+    /**
+     * @return 实体上声明但数据库中不存在的索引（按索引字段和唯一性比较）
+     */
+    public List<String> findMissingIndexes(Class<?> entity) {
+        Set<Document> existing = new HashSet<>();
+        for (IndexInfo info : mongoTemplate.indexOps(entity).getIndexInfo()) {
+            existing.add(new Document("key", indexKeys(info)).append("unique", info.isUnique()));
+        }
+
+        List<String> missing = new ArrayList<>();
+        for (IndexDefinition definition : indexResolver.resolveIndexFor(entity)) {
+            Document keys = indexKeys(definition);
+            boolean unique = Boolean.TRUE.equals(definition.getIndexOptions().get("unique"));
+            if (!existing.contains(new Document("key", keys).append("unique", unique))) {
+                missing.add(unique ? keys.toJson() + " (unique)" : keys.toJson());
+            }
+        }
+        return missing;
+    }
+
+    private static Document indexKeys(IndexInfo info) {
+        Document keys = new Document();
+        info.getIndexFields().forEach(field -> keys.append(field.getKey(), field.isText() ? "text"
+                : field.getDirection() != null && field.getDirection().isDescending() ? -1 : 1));
+        return keys;
+    }
+
+    private static Document indexKeys(IndexDefinition definition) {
+        Document keys = new Document();
+        // 文本索引的字段值为 "text"
+        definition.getIndexKeys().forEach((key, value) -> keys.append(key,
+                value instanceof Number ? ((Number) value).intValue() : value));
+        return keys;
+    }
+
+    /**
+     * 通过 $indexStats 找出自统计开始以来从未被使用的索引（不含 _id 索引）
+     * 统计在 mongod 重启后清零，结果仅供参考
+     */
+    public List<String> findUnusedIndexes(Class<?> entity) {
+        List<String> unused = new ArrayList<>();
+        try {
+            for (Document stats : mongoTemplate.getCollection(mongoTemplate.getCollectionName(entity))
+                    .aggregate(Collections.singletonList(new Document("$indexStats", new Document())))) {
+                String name = stats.getString("name");
+                Document accesses = stats.get("accesses", Document.class);
+                Object ops = accesses != null ? accesses.get("ops") : null;
+                if (!"_id_".equals(name) && ops instanceof Number && ((Number) ops).longValue() == 0) {
+                    unused.add(name);
+                }
+            }
+        } catch (Exception e) {
+            // 没有 $indexStats 权限时跳过
+            log.debug("Unable to read index stats for {}", entity.getSimpleName(), e);
+        }
+        return unused;
+    }
+}
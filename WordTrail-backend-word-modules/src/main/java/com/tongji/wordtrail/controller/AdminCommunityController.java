@@ -149,4 +149,13 @@ public class AdminCommunityController {
         responseData.put("msg", null);
         return ResponseEntity.ok().body(responseData);
     }
+    @PostMapping("/users/stats/rebuild")
+    public ResponseEntity<?> rebuildUserStats() {
+        int count = communityService.rebuildUserStats();
+        Map<String, Object> responseData = new HashMap<>();
+        responseData.put("code", 200);
+        responseData.put("msg", null);
+        responseData.put("count", count);
+        return ResponseEntity.ok().body(responseData);
+    }
 }
@@ -4,9 +4,11 @@ import com.tongji.wordtrail.dto.AdminWordResponse;
 import com.tongji.wordtrail.dto.AdminWordbookRequest;
 import com.tongji.wordtrail.dto.AdminWordbooksResponse;
 import com.tongji.wordtrail.dto.AuthResponse;
+import com.tongji.wordtrail.dto.WordImportReport;
 import com.tongji.wordtrail.model.Words;
 import com.tongji.wordtrail.service.AdminWordbookService;
 import com.tongji.wordtrail.service.SystemWordbookService;
+import com.tongji.wordtrail.service.WordImportService;
 import org.bson.types.ObjectId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -14,6 +16,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -24,9 +27,12 @@ public class AdminWordbookController {
     private static final Logger logger = LoggerFactory.getLogger(AdminWordbookController.class);
     private final AdminWordbookService adminWordbookService;
     private final SystemWordbookService systemWordbookService;
-    public AdminWordbookController(AdminWordbookService adminWordbookService, SystemWordbookService systemWordbookService) {
+    private final WordImportService wordImportService;
+    public AdminWordbookController(AdminWordbookService adminWordbookService, SystemWordbookService systemWordbookService,
+                                   WordImportService wordImportService) {
         this.adminWordbookService = adminWordbookService;
         this.systemWordbookService = systemWordbookService;
+        this.wordImportService = wordImportService;
         logger.info("AdminWordbookController initialized");
     }
     // 获取词汇列表
@@ -123,6 +129,30 @@ public class AdminWordbookController {
         }
     }
 
+    // 批量导入词汇（JSON Lines 或 CSV）并加入词书，format 为空时按文件扩展名判断
+    @PostMapping("/{wordbookId}/vocabularies/import")
+    public ResponseEntity<?> importVocabularies(
+            @PathVariable String wordbookId,
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(required = false) String format,
+            @RequestParam(defaultValue = "" + WordImportService.DEFAULT_BATCH_SIZE) int batchSize) {
+        if (format == null) {
+            String filename = file.getOriginalFilename();
+            format = filename != null && filename.toLowerCase().endsWith(".csv") ? "csv" : "jsonl";
+        }
+        try {
+            WordImportReport report = wordImportService.importWords(file.getInputStream(), format, wordbookId, batchSize);
+            logger.info("Imported {} words into wordbook {}", report.getInserted(), wordbookId);
+            return ResponseEntity.ok(report);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Collections.singletonMap("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Importing words failed. Wordbook ID: {}", wordbookId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Collections.singletonMap("error", "Failed to import words"));
+        }
+    }
+
     // 删除新词汇
     @DeleteMapping("/{wordbookId}/vocabularies")
     public ResponseEntity<?> removeWordsFromWordbook(
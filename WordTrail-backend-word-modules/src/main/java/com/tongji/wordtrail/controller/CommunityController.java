@@ -18,6 +18,7 @@ import org.springframework.web.multipart.MultipartFile;
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/forum")
@@ -90,6 +91,32 @@ public class CommunityController {
         responseData.put("data", postList);
         return ResponseEntity.ok().body(responseData);
     }
+    // 帖子流：按发布时间从新到旧，nextCursor 作为下一页的 cursor 参数
+    @GetMapping("/post/feed")
+    public ResponseEntity<?> getPostFeed(@RequestParam(value = "cursor", required = false) String cursor,
+                                         @RequestParam(value = "size", defaultValue = "10") int size) {
+        return feedResponse(() -> communityService.getFeed(cursor, size));
+    }
+    // 某用户的帖子流
+    @GetMapping("/post/user/feed")
+    public ResponseEntity<?> getUserPostFeed(@RequestParam("uid") String uid,
+                                             @RequestParam(value = "cursor", required = false) String cursor,
+                                             @RequestParam(value = "size", defaultValue = "10") int size) {
+        return feedResponse(() -> communityService.getUserFeed(uid, cursor, size));
+    }
+    private ResponseEntity<?> feedResponse(Supplier<CursorPage<PostResponse>> feed) {
+        Map<String, Object> responseData = new HashMap<>();
+        try {
+            responseData.put("code", 200);
+            responseData.put("msg", null);
+            responseData.put("data", feed.get());
+            return ResponseEntity.ok().body(responseData);
+        } catch (IllegalArgumentException e) {
+            responseData.put("code", 400);
+            responseData.put("msg", e.getMessage());
+            return ResponseEntity.badRequest().body(responseData);
+        }
+    }
     // 随机获取10条帖子
     @GetMapping("/post/random")
     public ResponseEntity<?> getRandomPost() {
@@ -140,11 +167,16 @@ public class CommunityController {
     // 用户进行点赞，并返回帖子点赞总数
     @PostMapping("/post/vote")
     public ResponseEntity<?> getPostVote(@RequestParam("postId") String postId, @RequestParam("userId") String userId, @RequestParam("upvote") String upvote) {
-        int count = communityService.getPostVoteCount(postId, userId, upvote);
         Map<String, Object> responseData = new HashMap<>();
-        responseData.put("code", 200);
-        responseData.put("msg", null);
-        responseData.put("data", count);
+        try {
+            int count = communityService.getPostVoteCount(postId, userId, upvote);
+            responseData.put("code", 200);
+            responseData.put("msg", null);
+            responseData.put("data", count);
+        } catch (IllegalArgumentException e) {
+            responseData.put("code", 404);
+            responseData.put("msg", "帖子不存在");
+        }
         return ResponseEntity.ok().body(responseData);
     }
     // 返回用户是否点赞
@@ -254,6 +286,24 @@ public class CommunityController {
         responseData.put("data", comments);
         return ResponseEntity.ok().body(responseData);
     }
+    // 分页获取帖子评论，nextCursor 作为下一页的 cursor 参数
+    @GetMapping("/comment/page")
+    public ResponseEntity<?> getCommentPage(@RequestParam("postId") String postId,
+                                            @RequestParam(value = "cursor", required = false) String cursor,
+                                            @RequestParam(value = "size", defaultValue = "20") int size) {
+        Map<String, Object> responseData = new HashMap<>();
+        try {
+            CursorPage<Comment> comments = communityService.getCommentPage(postId, cursor, size);
+            responseData.put("code", 200);
+            responseData.put("msg", null);
+            responseData.put("data", comments);
+            return ResponseEntity.ok().body(responseData);
+        } catch (IllegalArgumentException e) {
+            responseData.put("code", 400);
+            responseData.put("msg", e.getMessage());
+            return ResponseEntity.badRequest().body(responseData);
+        }
+    }
     @GetMapping("/comment/{id}")
     public ResponseEntity<?> getComment(@PathVariable("id") String commentId) {
         Comment comment = communityService.getComment(commentId);
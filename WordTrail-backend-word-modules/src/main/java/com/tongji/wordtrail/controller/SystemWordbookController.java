@@ -1,13 +1,18 @@
 package com.tongji.wordtrail.controller;
 
+import com.tongji.wordtrail.dto.CursorPage;
+import com.tongji.wordtrail.model.Words;
 import com.tongji.wordtrail.service.SystemWordbookService;
+import com.tongji.wordtrail.service.WordbookExportService;
 import lombok.extern.slf4j.Slf4j;
 import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Map;
@@ -20,10 +25,13 @@ import java.util.stream.Collectors;
 public class SystemWordbookController {
 
     private final SystemWordbookService systemWordbookService;
+    private final WordbookExportService wordbookExportService;
 
     @Autowired
-    public SystemWordbookController(SystemWordbookService systemWordbookService) {
+    public SystemWordbookController(SystemWordbookService systemWordbookService,
+                                    WordbookExportService wordbookExportService) {
         this.systemWordbookService = systemWordbookService;
+        this.wordbookExportService = wordbookExportService;
     }
 
     @GetMapping("/{id}")
@@ -41,6 +49,23 @@ public class SystemWordbookController {
         return ResponseEntity.ok(systemWordbookService.getSystemWordbooks(page, size, filters));
     }
 
+    /**
+     * 游标分页获取系统词书，nextCursor 作为下一页的 cursor 参数
+     */
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPage<Map<String, Object>>> getWordbooksByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            @RequestParam(required = false) Map<String, String> filters) {
+        try {
+            return ResponseEntity.ok(systemWordbookService.getSystemWordbooksByCursor(cursor, size, filters, includeTotal));
+        } catch (IllegalArgumentException e) {
+            log.error("Error getting system wordbooks by cursor: ", e);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @PostMapping
     public ResponseEntity<Map<String, Object>> createWordbook(
             @RequestBody Map<String, Object> wordbookData) {
@@ -119,10 +144,35 @@ public class SystemWordbookController {
     }
 
     @GetMapping("/{id}/words")
-    public ResponseEntity<List<Map<String, Object>>> getWordbookWords(@PathVariable String id) {
+    public ResponseEntity<List<Words>> getWordbookWords(@PathVariable String id) {
         return ResponseEntity.ok(systemWordbookService.getWordbookWords(id));
     }
 
+    /**
+     * 流式导出词书单词，format 为 jsonl 或 csv，gzip=true 时压缩输出
+     */
+    @GetMapping("/{id}/export")
+    public ResponseEntity<StreamingResponseBody> exportWordbook(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "jsonl") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        if (!ObjectId.isValid(id)) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            ObjectId bookId = new ObjectId(id);
+            StreamingResponseBody body = wordbookExportService.export(bookId, format, gzip);
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
+                            "attachment; filename=\"" + wordbookExportService.fileName(bookId, format, gzip) + "\"")
+                    .contentType(wordbookExportService.contentType(format, gzip))
+                    .body(body);
+        } catch (IllegalArgumentException e) {
+            log.error("Error exporting wordbook {}: ", id, e);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/by-language/{language}")
     public ResponseEntity<List<Map<String, Object>>> getWordbooksByLanguage(
             @PathVariable String language) {
@@ -1,12 +1,18 @@
 package com.tongji.wordtrail.controller;
 
+import com.tongji.wordtrail.dto.CursorPage;
+import com.tongji.wordtrail.model.Words;
 import com.tongji.wordtrail.service.UserWordbookService;
+import com.tongji.wordtrail.service.WordbookExportService;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Map;
@@ -17,10 +23,13 @@ import java.util.Map;
 public class UserWordbookController {
 
     private final UserWordbookService userWordbookService;
+    private final WordbookExportService wordbookExportService;
 
     @Autowired
-    public UserWordbookController(UserWordbookService userWordbookService) {
+    public UserWordbookController(UserWordbookService userWordbookService,
+                                  WordbookExportService wordbookExportService) {
         this.userWordbookService = userWordbookService;
+        this.wordbookExportService = wordbookExportService;
     }
 
 
@@ -47,6 +56,58 @@ public class UserWordbookController {
         return ResponseEntity.ok(userWordbookService.getPublicWordbooks(page, size));
     }
 
+    /**
+     * 游标分页获取用户的词书，nextCursor 作为下一页的 cursor 参数
+     */
+    @GetMapping("/user/{userId}/cursor")
+    public ResponseEntity<CursorPage<Map<String, Object>>> getUserWordbooksByCursor(
+            @PathVariable String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            @RequestParam(required = false) Map<String, String> filters) {
+        try {
+            return ResponseEntity.ok(userWordbookService.getUserWordbooksByCursor(userId, cursor, size, filters, includeTotal));
+        } catch (IllegalArgumentException e) {
+            log.error("Error getting user wordbooks by cursor: ", e);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/public/cursor")
+    public ResponseEntity<CursorPage<Map<String, Object>>> getPublicWordbooksByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        try {
+            return ResponseEntity.ok(userWordbookService.getPublicWordbooksByCursor(cursor, size, includeTotal));
+        } catch (IllegalArgumentException e) {
+            log.error("Error getting public wordbooks by cursor: ", e);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * 游标分页搜索词书
+     */
+    @GetMapping("/search")
+    public ResponseEntity<CursorPage<Map<String, Object>>> searchWordbooks(
+            @RequestParam(required = false) String keyword,
+            @RequestParam(required = false) List<String> tags,
+            @RequestParam(defaultValue = "true") boolean onlyPublic,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        try {
+            return ResponseEntity.ok(userWordbookService.searchWordbooksByCursor(
+                    keyword, tags, onlyPublic, status, cursor, size, includeTotal));
+        } catch (IllegalArgumentException e) {
+            log.error("Error searching wordbooks: ", e);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @PostMapping("/user/{userId}")
     public ResponseEntity<Map<String, Object>> createWordbook(
             @PathVariable String userId,
@@ -126,7 +187,7 @@ public class UserWordbookController {
     }
 
     @GetMapping("/{id}/words/user/{userId}")
-    public ResponseEntity<List<Map<String, Object>>> getWordbookWords(
+    public ResponseEntity<List<Words>> getWordbookWords(
             @PathVariable String id,
             @PathVariable String userId) {
         try {
@@ -139,7 +200,7 @@ public class UserWordbookController {
 
     // 获取公开词书的单词（不需要用户ID）
     @GetMapping("/{id}/words")
-    public ResponseEntity<List<Map<String, Object>>> getPublicWordbookWords(
+    public ResponseEntity<List<Words>> getPublicWordbookWords(
             @PathVariable String id) {
         try {
             return ResponseEntity.ok(userWordbookService.getWordbookWords(id, null));
@@ -149,6 +210,31 @@ public class UserWordbookController {
         }
     }
 
+    /**
+     * 流式导出词书单词，format 为 jsonl 或 csv，gzip=true 时压缩输出
+     */
+    @GetMapping("/{id}/export")
+    public ResponseEntity<StreamingResponseBody> exportWordbook(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "jsonl") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        if (!ObjectId.isValid(id)) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            ObjectId bookId = new ObjectId(id);
+            StreamingResponseBody body = wordbookExportService.export(bookId, format, gzip);
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
+                            "attachment; filename=\"" + wordbookExportService.fileName(bookId, format, gzip) + "\"")
+                    .contentType(wordbookExportService.contentType(format, gzip))
+                    .body(body);
+        } catch (IllegalArgumentException e) {
+            log.error("Error exporting wordbook {}: ", id, e);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/by-language/{language}/approved")
     public ResponseEntity<List<Map<String, Object>>> getApprovedPublicWordbooksByLanguage(
             @PathVariable String language) {
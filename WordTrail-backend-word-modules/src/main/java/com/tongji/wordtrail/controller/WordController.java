@@ -1,12 +1,14 @@
 package com.tongji.wordtrail.controller;
 
+import com.tongji.wordtrail.dto.CursorPage;
+import com.tongji.wordtrail.dto.QuizQuestion;
+import com.tongji.wordtrail.dto.QuizRequest;
+import com.tongji.wordtrail.model.Words;
 import com.tongji.wordtrail.service.WordService;
 import lombok.extern.slf4j.Slf4j;
 import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
-import org.springframework.data.mongodb.core.query.Criteria;
-import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -35,11 +37,11 @@ public class WordController {
     }
 
     @GetMapping
-    public ResponseEntity<List<Map<String, Object>>> getWords(
+    public ResponseEntity<List<Words>> getWords(
             @RequestParam(required = false) Map<String, String> queryParams) {
         log.debug("Received query params: {}", queryParams);
 
-        List<Map<String, Object>> results;
+        List<Words> results;
         if (queryParams.containsKey("ids")) {
             List<String> ids = Arrays.asList(queryParams.get("ids").split(","));
             results = wordService.getWordsByIds(ids);
@@ -52,11 +54,10 @@ public class WordController {
     }
 
     @PostMapping("/by-ids")
-    public ResponseEntity<List<Map<String, Object>>> getWordsByIds(
+    public ResponseEntity<List<Words>> getWordsByIds(
             @RequestBody List<String> wordIds) {
         try {
-            Query query = new Query(Criteria.where("_id").in(wordIds));
-            List<Map<String, Object>> words = wordService.getWordsByIds(wordIds);
+            List<Words> words = wordService.getWordsByIds(wordIds);
             return ResponseEntity.ok(words);
         } catch (Exception e) {
             log.error("Error fetching words by ids: ", e);
@@ -65,12 +66,28 @@ public class WordController {
     }
 
     @GetMapping("/page")
-    public ResponseEntity<Page<Map<String, Object>>> getWordsWithPagination(
+    public ResponseEntity<Page<Words>> getWordsWithPagination(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
         return ResponseEntity.ok(wordService.getWordsWithPagination(page, size));
     }
 
+    /**
+     * 游标分页获取单词，nextCursor 作为下一页的 cursor 参数
+     */
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPage<Words>> getWordsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        try {
+            return ResponseEntity.ok(wordService.getWordsByCursor(cursor, size, includeTotal));
+        } catch (IllegalArgumentException e) {
+            log.error("Error getting words by cursor: ", e);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @PostMapping
     public ResponseEntity<Map<String, Object>> createWord(
             @RequestBody Map<String, Object> wordData) {
@@ -122,6 +139,14 @@ public class WordController {
         }
     }
 
+    /**
+     * 单词缓存统计（命中率等）
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        return ResponseEntity.ok(wordService.getCacheStats());
+    }
+
     @GetMapping("/{id}/confusion-options")
     public ResponseEntity<List<String>> getConfusionOptions(@PathVariable String id) {
         try {
@@ -132,17 +157,29 @@ public class WordController {
             return ResponseEntity.badRequest().build();
         }
     }
+    /**
+     * 批量生成一份测验：传入目标单词ID列表，或者词书ID + 题目数量
+     */
+    @PostMapping("/quiz")
+    public ResponseEntity<List<QuizQuestion>> generateQuiz(@RequestBody QuizRequest request) {
+        try {
+            return ResponseEntity.ok(wordService.generateQuiz(request));
+        } catch (IllegalArgumentException e) {
+            log.error("Error generating quiz: ", e);
+            return ResponseEntity.badRequest().build();
+        }
+    }
     //下面这三个接口是错的，具体原因是什么我也不知道
 
     /**
      * 获取词书中熟练度模糊的单词（0.5 <= proficiency < 0.8）
      */
     @GetMapping("/book/{bookId}/fuzzy-words-detail")
-    public ResponseEntity<List<Map<String, Object>>> getFuzzyWordsDetailFromBook(
+    public ResponseEntity<List<Words>> getFuzzyWordsDetailFromBook(
             @RequestParam String userId,
             @PathVariable String bookId) {
         try {
-            List<Map<String, Object>> fuzzyWords =
+            List<Words> fuzzyWords =
                     wordService.getFuzzyWordsFromBook(userId, bookId);
             return ResponseEntity.ok(fuzzyWords);
         } catch (Exception e) {
@@ -155,11 +192,11 @@ public class WordController {
      * 获取词书中熟悉的单词（0.8 <= proficiency <= 1）
      */
     @GetMapping("/book/{bookId}/familiar-words-detail")
-    public ResponseEntity<List<Map<String, Object>>> getFamiliarWordsDetailFromBook(
+    public ResponseEntity<List<Words>> getFamiliarWordsDetailFromBook(
             @RequestParam String userId,
             @PathVariable String bookId) {
         try {
-            List<Map<String, Object>> familiarWords =
+            List<Words> familiarWords =
                     wordService.getFamiliarWordsFromBook(userId, bookId);
             return ResponseEntity.ok(familiarWords);
         } catch (Exception e) {
@@ -172,11 +209,11 @@ public class WordController {
      * 获取词书中未学习的单词（proficiency = 0）
      */
     @GetMapping("/book/{bookId}/unlearned-words-detail")
-    public ResponseEntity<List<Map<String, Object>>> getUnlearnedWordsDetailFromBook(
+    public ResponseEntity<List<Words>> getUnlearnedWordsDetailFromBook(
             @RequestParam String userId,
             @PathVariable String bookId) {
         try {
-            List<Map<String, Object>> unlearnedWords =
+            List<Words> unlearnedWords =
                     wordService.getUnlearnedWordsFromBook(userId, bookId);
             return ResponseEntity.ok(unlearnedWords);
         } catch (Exception e) {
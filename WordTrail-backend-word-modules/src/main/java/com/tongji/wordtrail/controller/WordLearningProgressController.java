@@ -1,5 +1,8 @@
 package com.tongji.wordtrail.controller;
 
+import com.tongji.wordtrail.dto.BatchLearningResponse;
+import com.tongji.wordtrail.dto.ReviewItemRequest;
+import com.tongji.wordtrail.dto.ReviewQueuePage;
 import com.tongji.wordtrail.model.WordLearningProgress;
 import com.tongji.wordtrail.service.WordLearningProgressService;
 import org.bson.types.ObjectId;
@@ -53,6 +56,28 @@ public class WordLearningProgressController {
         return new ResponseEntity<>(progress, HttpStatus.OK);
     }
 
+    /**
+     * 批量开始学习新单词，整个学习会话只写一条学习记录
+     */
+    @PostMapping("/start/batch")
+    public ResponseEntity<BatchLearningResponse> startLearningBatch(
+            @RequestParam String userId,
+            @RequestBody List<String> wordIds) {
+        BatchLearningResponse response = learningProgressService.startLearningWords(userId, wordIds);
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    /**
+     * 批量记录一次复习会话的复习结果，返回每条结果的处理状态
+     */
+    @PostMapping("/review/batch")
+    public ResponseEntity<BatchLearningResponse> recordReviewBatch(
+            @RequestParam String userId,
+            @RequestBody List<ReviewItemRequest> reviews) {
+        BatchLearningResponse response = learningProgressService.recordReviewResults(userId, reviews);
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
     /**
      * 获取今日需要复习的单词
      */
@@ -66,6 +91,21 @@ public class WordLearningProgressController {
         return new ResponseEntity<>(words, HttpStatus.OK);
     }
 
+    /**
+     * 分页获取今日复习队列，逾期最久、熟练度最低的单词排在前面
+     * timeZone 为用户时区，用于计算“今天”的起止时间
+     */
+    @GetMapping("/review-queue")
+    public ResponseEntity<ReviewQueuePage> getReviewQueue(
+            @RequestParam String userId,
+            @RequestParam(required = false) ObjectId bookId,
+            @RequestParam(required = false) String timeZone,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        ReviewQueuePage page = learningProgressService.getReviewQueue(userId, bookId, timeZone, cursor, limit);
+        return new ResponseEntity<>(page, HttpStatus.OK);
+    }
+
     /**
      * 获取待复习单词数量
      */
@@ -83,24 +123,28 @@ public class WordLearningProgressController {
 
     /**
      * 获取用户总体学习统计信息
+     * breakdown=true 时同时返回 初识/模糊/熟悉 单词数量
      */
     @GetMapping("/stats")
     public ResponseEntity<WordLearningProgressService.UserLearningStats> getUserStats(
-            @RequestParam String userId) {
+            @RequestParam String userId,
+            @RequestParam(defaultValue = "false") boolean breakdown) {
         WordLearningProgressService.UserLearningStats stats =
-                learningProgressService.getUserStats(userId);
+                learningProgressService.getUserStats(userId, breakdown);
         return new ResponseEntity<>(stats, HttpStatus.OK);
     }
 
     /**
      * 获取词书的学习统计信息
+     * breakdown=true 时同时返回 初识/模糊/熟悉 单词数量
      */
     @GetMapping("/book/{bookId}/stats")
     public ResponseEntity<WordLearningProgressService.BookLearningStats> getBookStats(
             @RequestParam String userId,
-            @PathVariable ObjectId bookId) {
+            @PathVariable ObjectId bookId,
+            @RequestParam(defaultValue = "false") boolean breakdown) {
         WordLearningProgressService.BookLearningStats stats =
-                learningProgressService.getBookStats(userId, bookId);
+                learningProgressService.getBookStats(userId, bookId, breakdown);
         return new ResponseEntity<>(stats, HttpStatus.OK);
     }
 
@@ -0,0 +1,40 @@
+package com.tongji.wordtrail.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量学习/复习的处理结果，results 与请求中的条目一一对应
+ */
+@Data
+public class BatchLearningResponse {
+    private int succeeded;
+    private int failed;
+    private List<ItemResult> results = new ArrayList<>();
+
+    public void addResult(String wordId, String status, boolean success, String message) {
+        results.add(new ItemResult(wordId, status, message));
+        if (success) {
+            succeeded++;
+        } else {
+            failed++;
+        }
+    }
+
+    @Data
+    public static class ItemResult {
+        private String wordId;
+        private String status;  // "created", "exists", "reviewed", "not_found", "invalid", "failed"
+        private String message;
+
+        public ItemResult() {}
+
+        public ItemResult(String wordId, String status, String message) {
+            this.wordId = wordId;
+            this.status = status;
+            this.message = message;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.tongji.wordtrail.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 游标分页结果，nextCursor 为空表示已经是最后一页
+ * total 只在请求时返回
+ */
+@Data
+public class CursorPage<T> {
+    private List<T> items = new ArrayList<>();
+    private String nextCursor;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long total;
+}
@@ -0,0 +1,16 @@
+package com.tongji.wordtrail.dto;
+
+import com.tongji.wordtrail.model.Words;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 测验中的一道题：目标单词和它的混淆选项
+ */
+@Data
+public class QuizQuestion {
+    private Words word;
+    private List<Words> distractors = new ArrayList<>();
+}
@@ -0,0 +1,16 @@
+package com.tongji.wordtrail.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 批量生成测验题目：指定目标单词ID列表，或者指定词书ID和题目数量（从词书中随机选词）
+ */
+@Data
+public class QuizRequest {
+    private List<String> wordIds;
+    private String bookId;
+    private Integer count;
+    private int optionCount = 4;  // 每道题的混淆选项数量
+}
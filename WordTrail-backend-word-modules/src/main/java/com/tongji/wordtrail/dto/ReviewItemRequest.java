@@ -0,0 +1,12 @@
+package com.tongji.wordtrail.dto;
+
+import lombok.Data;
+
+/**
+ * 批量复习中的单条复习结果
+ */
+@Data
+public class ReviewItemRequest {
+    private String wordId;
+    private boolean remembered;
+}
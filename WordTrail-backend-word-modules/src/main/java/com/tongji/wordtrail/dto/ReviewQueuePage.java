@@ -0,0 +1,27 @@
+package com.tongji.wordtrail.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 复习队列的一页，nextCursor 为空表示已经没有更多单词
+ */
+@Data
+public class ReviewQueuePage {
+    private List<Item> items = new ArrayList<>();
+    private String nextCursor;
+
+    /**
+     * 复习队列中的单词，只包含客户端开始复习需要的字段
+     */
+    @Data
+    public static class Item {
+        private String wordId;
+        private Date nextReviewTime;
+        private double proficiency;
+        private int reviewStage;
+    }
+}
@@ -0,0 +1,51 @@
+package com.tongji.wordtrail.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量导入单词的结果：总体统计、每个批次的写入情况和逐行错误（最多保留 MAX_ERRORS 条）
+ */
+@Data
+public class WordImportReport {
+    public static final int MAX_ERRORS = 200;
+
+    private int totalLines;
+    private int inserted;
+    private int duplicates;   // 文件内重复或数据库中已存在（已存在的单词仍会加入词书）
+    private int invalid;
+    private int failed;
+    private int addedToWordbook;
+    private List<BatchResult> batches = new ArrayList<>();
+    private List<LineError> errors = new ArrayList<>();
+
+    public void addError(int line, String message) {
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(new LineError(line, message));
+        }
+    }
+
+    @Data
+    public static class BatchResult {
+        private int batch;
+        private int inserted;
+        private int existing;
+        private int failed;
+    }
+
+    // line 为文件中的行号，批次写入时的错误同样报告对应单词所在的行
+    @Data
+    public static class LineError {
+        private int line;
+        private String message;
+
+        public LineError() {}
+
+        public LineError(int line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+    }
+}
@@ -1,11 +1,14 @@
 package com.tongji.wordtrail.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
 
 @Document(collection = "comment") // MongoDB 的集合
+// 按帖子分页读取评论
+@CompoundIndex(name = "post_created", def = "{'postId': 1, 'createdTime': 1, '_id': 1}")
 public class Comment {
     @Id
     private String id;
@@ -1,14 +1,24 @@
 package com.tongji.wordtrail.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.tongji.wordtrail.util.SearchTokenizer;
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.LocalDateTime;
 import java.util.List;
 @Data
-@Document(collection = "posts") // MongoDB 的集合
+@Document(collection = "posts", language = "none") // MongoDB 的集合，文本索引不做词干处理
+@CompoundIndexes({
+        // 帖子流按 (createdAt, _id) 游标分页
+        @CompoundIndex(name = "created_feed", def = "{'createdAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "user_created_feed", def = "{'userId': 1, 'createdAt': -1, '_id': -1}")
+})
 public class Post {
 
     @Id
@@ -21,20 +31,29 @@ public class Post {
     private String userId;
     private int commentCount;
     private int voteCount;
+    // 已废弃：帖子列表改为按 createdAt 排序分页，只保留以兼容历史数据
+    @Deprecated
     private int page;
     private String state;
     private String userAvatar;
     private String message;
     private int like;
     private int dislike;
+    // 标题和内容的分词结果，由 setTitle / setContent 维护，用于全文检索
+    @JsonIgnore
+    @TextIndexed(weight = 3)
+    private String titleTerms;
+    @JsonIgnore
+    @TextIndexed
+    private String contentTerms;
     public Post() {
         this.commentCount = 0;
         this.voteCount = 0;
     }
 
     public Post(String title, String content, LocalDateTime createdAt, LocalDateTime updatedTime, String userId, List<String> filePaths, int commentCount, int voteCount, int page, String userAvatar) {
-        this.title = title;
-        this.content = content;
+        setTitle(title);
+        setContent(content);
         this.createdAt = createdAt;
         this.updatedTime = updatedTime;
         this.userId = userId;
@@ -63,6 +82,7 @@ public class Post {
 
     public void setTitle(String title) {
         this.title = title;
+        this.titleTerms = SearchTokenizer.indexTerms(title);
     }
 
     public String getContent() {
@@ -71,6 +91,7 @@ public class Post {
 
     public void setContent(String content) {
         this.content = content;
+        this.contentTerms = SearchTokenizer.indexTerms(content);
     }
 
     public List<String> getFilePaths() {
@@ -0,0 +1,90 @@
+package com.tongji.wordtrail.model;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * 复习历史归档（只追加）
+ * word_learning_progress 中的 reviewHistory 只保留最近的记录，每一次复习都会在这里留一条完整记录
+ */
+@Document(collection = "review_history_archive")
+@CompoundIndex(name = "user_word_review_time", def = "{'userId': 1, 'wordId': 1, 'reviewTime': 1}")
+public class ReviewHistoryArchive {
+    @Id
+    @JsonSerialize(using = ToStringSerializer.class)
+    private ObjectId id;
+
+    private String userId;
+
+    @JsonSerialize(using = ToStringSerializer.class)
+    private ObjectId wordId;
+
+    private Date reviewTime;
+    private boolean remembered;
+    private int stage;
+
+    public ReviewHistoryArchive() {
+    }
+
+    public ReviewHistoryArchive(String userId, ObjectId wordId, Date reviewTime, boolean remembered, int stage) {
+        this.userId = userId;
+        this.wordId = wordId;
+        this.reviewTime = reviewTime;
+        this.remembered = remembered;
+        this.stage = stage;
+    }
+
+    public ObjectId getId() {
+        return id;
+    }
+
+    public void setId(ObjectId id) {
+        this.id = id;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public ObjectId getWordId() {
+        return wordId;
+    }
+
+    public void setWordId(ObjectId wordId) {
+        this.wordId = wordId;
+    }
+
+    public Date getReviewTime() {
+        return reviewTime;
+    }
+
+    public void setReviewTime(Date reviewTime) {
+        this.reviewTime = reviewTime;
+    }
+
+    public boolean isRemembered() {
+        return remembered;
+    }
+
+    public void setRemembered(boolean remembered) {
+        this.remembered = remembered;
+    }
+
+    public int getStage() {
+        return stage;
+    }
+
+    public void setStage(int stage) {
+        this.stage = stage;
+    }
+}
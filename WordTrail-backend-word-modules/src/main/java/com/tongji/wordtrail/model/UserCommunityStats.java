@@ -0,0 +1,28 @@
+package com.tongji.wordtrail.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * 用户社区统计：发帖、评论、帖子获得的赞/踩数量以及最新的管理状态
+ * 由 CommunityStatsService 在发帖、评论、投票时增量维护
+ */
+@Data
+@Document(collection = "user_community_stats")
+public class UserCommunityStats {
+    @Id
+    private String userId;
+    private int postCount;
+    private int commentCount;
+    private int likeCount;
+    private int dislikeCount;
+    private String state;
+
+    public UserCommunityStats() {
+    }
+
+    public UserCommunityStats(String userId) {
+        this.userId = userId;
+    }
+}
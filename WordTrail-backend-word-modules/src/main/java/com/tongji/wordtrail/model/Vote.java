@@ -2,10 +2,13 @@ package com.tongji.wordtrail.model;
 
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 
 import java.time.LocalDateTime;
 
 @Document(collection = "vote")
+// 每个用户对每个帖子只有一条投票记录，同时支持按帖子查询投票
+@CompoundIndex(name = "post_user_unique", def = "{'postId': 1, 'userId': 1}", unique = true)
 public class Vote {
     @Id
     private String id;
@@ -2,6 +2,8 @@ package com.tongji.wordtrail.model;
 
 import org.bson.types.ObjectId;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
@@ -11,7 +13,20 @@ import java.util.Date;
 import java.util.List;
 
 @Document(collection = "word_learning_progress")
+@CompoundIndexes({
+        // 每个用户每个单词只有一条学习进度
+        @CompoundIndex(name = "user_word_unique", def = "{'userId': 1, 'wordId': 1}", unique = true),
+        // 今日复习 / 逾期复习，复习队列按 nextReviewTime、proficiency、_id 排序，索引包含全部排序字段以避免内存排序
+        @CompoundIndex(name = "user_next_review", def = "{'userId': 1, 'nextReviewTime': 1, 'proficiency': 1, '_id': 1}"),
+        @CompoundIndex(name = "user_last_review", def = "{'userId': 1, 'lastReviewTime': 1}"),
+        // 打卡统计：当天新学 / 当天复习
+        @CompoundIndex(name = "user_first_learn", def = "{'userId': 1, 'firstLearnTime': 1}"),
+        @CompoundIndex(name = "user_review_history_time", def = "{'userId': 1, 'reviewHistory.reviewTime': 1}")
+})
 public class WordLearningProgress {
+    // reviewHistory 只保留最近的复习记录，完整历史写入 review_history_archive
+    public static final int MAX_REVIEW_HISTORY = 20;
+
     @Id
     @JsonSerialize(using = ToStringSerializer.class)
     private ObjectId id;
@@ -28,6 +43,10 @@ public class WordLearningProgress {
     private int reviewStage;
     private List<ReviewRecord> reviewHistory;
 
+    // 复习汇总计数，不受 reviewHistory 截断影响
+    private int totalReviews;
+    private int successfulReviews;
+
     // 添加一个新字段，标记数据是否来自数据库
     private boolean fromDatabase = true;
 
@@ -119,13 +138,53 @@ public class WordLearningProgress {
         this.reviewHistory = reviewHistory;
     }
 
-    public void addReviewHistory(boolean remembered) {
-        ReviewRecord record = new ReviewRecord(new Date(), remembered);
+    public int getTotalReviews() {
+        return totalReviews;
+    }
+
+    public void setTotalReviews(int totalReviews) {
+        this.totalReviews = totalReviews;
+    }
+
+    public int getSuccessfulReviews() {
+        return successfulReviews;
+    }
+
+    public void setSuccessfulReviews(int successfulReviews) {
+        this.successfulReviews = successfulReviews;
+    }
+
+    /**
+     * 最近 MAX_REVIEW_HISTORY 次复习的正确率
+     */
+    public double getRecentAccuracy() {
+        if (reviewHistory == null || reviewHistory.isEmpty()) {
+            return 0.0;
+        }
+        long remembered = reviewHistory.stream().filter(ReviewRecord::isRemembered).count();
+        return (double) remembered / reviewHistory.size();
+    }
+
+    public ReviewRecord addReviewHistory(boolean remembered) {
+        return addReviewHistory(remembered, new Date());
+    }
+
+    public ReviewRecord addReviewHistory(boolean remembered, Date reviewTime) {
+        ReviewRecord record = new ReviewRecord(reviewTime, remembered);
         if (this.reviewHistory == null) {
             this.reviewHistory = new ArrayList<>();
         }
         this.reviewHistory.add(record);
+        if (this.reviewHistory.size() > MAX_REVIEW_HISTORY) {
+            this.reviewHistory = new ArrayList<>(
+                    this.reviewHistory.subList(this.reviewHistory.size() - MAX_REVIEW_HISTORY, this.reviewHistory.size()));
+        }
+        this.totalReviews++;
+        if (remembered) {
+            this.successfulReviews++;
+        }
         this.lastReviewTime = record.getReviewTime();
+        return record;
     }
 
     // 添加 fromDatabase 相关的 getter 和 setter
@@ -3,12 +3,15 @@ package com.tongji.wordtrail.model;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import javax.persistence.Id;
 import java.util.List;
 
 @Document(collection = "words")
+// 导入时按 (word, language) 去重，唯一索引保证并发导入也不会写入重复单词
+@CompoundIndex(name = "word_language", def = "{'word': 1, 'language': 1}", unique = true)
 public class Words {
     @JsonSerialize(using = ToStringSerializer.class)
     @Id
@@ -1,11 +1,13 @@
 package com.tongji.wordtrail.repository;
 
 import com.tongji.wordtrail.model.Comment;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
 import java.util.List;
 
 public interface CommentRepository extends MongoRepository<Comment, String> {
     List<Comment> findByPostId(String postId);
+    List<Comment> findByPostId(String postId, Pageable pageable);
     List<Comment> findByUserId(String userId);
 }
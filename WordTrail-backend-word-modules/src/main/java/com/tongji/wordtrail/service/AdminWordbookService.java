@@ -34,6 +34,12 @@ public class AdminWordbookService {
     private SystemWordbookService systemWordbookService;;
     @Autowired
     private MongoTemplate mongoTemplate;
+    @Autowired
+    private ConfusionIndexService confusionIndexService;
+    @Autowired
+    private CollectionCountService collectionCountService;
+    @Autowired
+    private WordCacheService wordCacheService;
 
 
     public List<Map<String, Object>> findWordbooks() {
@@ -87,12 +93,17 @@ public class AdminWordbookService {
      * 添加单词
      */
     public Words createWord(Words word) {
-        return wordRepository.save(word);
+        Words saved = wordRepository.save(word);
+        confusionIndexService.put(toIndexDocument(saved));
+        // 带 id 的单词会覆盖已有单词
+        wordCacheService.invalidate(saved.getId());
+        collectionCountService.invalidate("words");
+        return saved;
     }
     // 创建词书
     public List<ObjectId> createWord(Map<String, Object> wordbookData) {
         List<Map<String, Object>> wordList = (List<Map<String, Object>>) wordbookData.get("words");
-        List<ObjectId> insertedIds = new ArrayList<>();
+        List<Words> words = new ArrayList<>(wordList.size());
 
         for (Map<String, Object> wordMap : wordList) {
             Words word = new Words();
@@ -104,13 +115,27 @@ public class AdminWordbookService {
             word.setPartOfSpeechList((List<Words.PartOfSpeech>) wordMap.get("partOfSpeechList"));
             word.setTags((List<String>) wordMap.get("tags"));
             word.setDifficulty((Integer) wordMap.get("difficulty"));
+            words.add(word);
+        }
 
-            Words saved = mongoTemplate.save(word, "words");
-            insertedIds.add(saved.getId());  // 拿到 MongoDB 自动生成的 id
+        // 一次 insertMany 写入所有单词，插入后 id 会回填到对象上
+        Collection<Words> saved = mongoTemplate.insert(words, "words");
+        List<ObjectId> insertedIds = new ArrayList<>(saved.size());
+        for (Words word : saved) {
+            insertedIds.add(word.getId());
+            confusionIndexService.put(toIndexDocument(word));
         }
+        collectionCountService.invalidate("words");
 
         return insertedIds;
     }
+    // 混淆选项索引只需要这几个字段
+    private Document toIndexDocument(Words word) {
+        return new Document("_id", word.getId())
+                .append("word", word.getWord())
+                .append("language", word.getLanguage())
+                .append("difficulty", word.getDifficulty());
+    }
     public Map<String, Object> createSystemWordbook(Map<String, Object> wordbookData) {
         List<ObjectId> words = createWord(wordbookData);
         wordbookData.put("createUser", "system");
@@ -25,6 +25,9 @@ public class AuthService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserCacheService userCacheService;
+
     @Autowired
     private PasswordEncoder passwordEncoder;
 
@@ -110,7 +113,7 @@ public class AuthService {
      * @throws UsernameNotFoundException if the user with the given id is not found
      */
     public UserDetailsResponse getUserDetails(String userId) {
-        User user = userRepository.findById(userId)
+        User user = userCacheService.findById(userId)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with id: " + userId));
 
         return UserDetailsResponse.builder()
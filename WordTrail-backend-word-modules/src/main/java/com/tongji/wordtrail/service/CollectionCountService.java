@@ -0,0 +1,83 @@
+package com.tongji.wordtrail.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 分页总数服务：为 words、user_wordbooks、system_wordbooks 的分页接口提供总数
+ * 总数按 集合 + 过滤条件 缓存一小段时间，集合发生写入时由对应的 Service 调用 invalidate 失效
+ */
+@Service
+@Slf4j
+public class CollectionCountService {
+
+    // 搜索关键词等过滤条件可能很多，超过该数量时清理缓存
+    private static final int MAX_ENTRIES = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final long ttlMillis;
+    private final Map<String, CachedCount> cache = new ConcurrentHashMap<>();
+
+    @Autowired
+    public CollectionCountService(MongoTemplate mongoTemplate,
+                                  @Value("${wordtrail.count-cache.ttl-seconds:30}") long ttlSeconds) {
+        this.mongoTemplate = mongoTemplate;
+        this.ttlMillis = ttlSeconds * 1000;
+    }
+
+    /**
+     * 统计符合过滤条件的文档数量
+     * 只使用查询的过滤条件，忽略 skip/limit/sort，没有过滤条件时使用 estimatedDocumentCount
+     * @param query 分页查询（可以已经带有分页参数）
+     * @param collection 集合名
+     */
+    public long count(Query query, String collection) {
+        Document filter = query != null ? query.getQueryObject() : new Document();
+        String key = collection + "|" + filter.toJson();
+
+        long now = System.currentTimeMillis();
+        CachedCount cached = cache.get(key);
+        if (cached != null && cached.expiresAt > now) {
+            return cached.value;
+        }
+
+        long value = filter.isEmpty()
+                ? mongoTemplate.estimatedCount(collection)
+                : mongoTemplate.count(new BasicQuery(filter), collection);
+        if (cache.size() >= MAX_ENTRIES) {
+            cache.values().removeIf(entry -> entry.expiresAt <= now);
+            if (cache.size() >= MAX_ENTRIES) {
+                cache.clear();
+            }
+        }
+        cache.put(key, new CachedCount(value, now + ttlMillis));
+        return value;
+    }
+
+    /**
+     * 集合发生新增、删除或修改后使该集合的所有缓存总数失效
+     */
+    public void invalidate(String collection) {
+        String prefix = collection + "|";
+        cache.keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    private static class CachedCount {
+        final long value;
+        final long expiresAt;
+
+        CachedCount(long value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -1,25 +1,38 @@
 package com.tongji.wordtrail.service;
 
 import com.tongji.wordtrail.dto.CommentRequest;
+import com.tongji.wordtrail.dto.CursorPage;
 import com.tongji.wordtrail.dto.PostResponse;
 import com.tongji.wordtrail.dto.UserResponse;
 import com.tongji.wordtrail.model.*;
 import com.tongji.wordtrail.repository.*;
+import com.tongji.wordtrail.util.KeysetPager;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 public class CommunityService {
+    // 不分页的评论列表最多返回的评论数
+    private static final int COMMENT_LIST_LIMIT = 100;
     @Autowired
     private final PostRepository postRepository;
     @Autowired
@@ -33,7 +46,19 @@ public class CommunityService {
     @Autowired
     private UserRepository userRepository;
     @Autowired
+    private UserCacheService userCacheService;
+    @Autowired
     private UserMessageRepository userMessageRepository;
+    @Autowired
+    private CommunityStatsService communityStatsService;
+    @Autowired
+    private VoteService voteService;
+    @Autowired
+    private PostSearchService postSearchService;
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private DiscoverFeedService discoverFeedService;
 
     @Autowired
     public CommunityService(PostRepository postRepository, VoteRepository voteRepository, FavouriteRepository favouriteRepository, CommentRepository commentRepository , DeletePostRepository deletePostRepository) {
@@ -46,181 +71,93 @@ public class CommunityService {
 
     public Post createPost(String userId, String title, String content, List<String> filePaths) {
         // 直接存储字符串路径
-        long postCountLong = postRepository.count(); // MongoDB 里统计文档总数
-        int postCount = (int) postCountLong;
-        // 示例：用帖子总数计算页码（比如每页10个）
-        int page = postCount / 10 + 1;
-        User user = userRepository.findById(userId).orElse(null);
+        User user = userCacheService.findById(userId).orElse(null);
         String userAvatar = null;
         if (user != null) {
             userAvatar = user.getAvatarUrl();
         }
-        Post post = new Post(title, content, LocalDateTime.now(), LocalDateTime.now(), userId, filePaths, 0, 0, page, userAvatar);
-        return postRepository.save(post);
+        Post post = new Post(title, content, LocalDateTime.now(), LocalDateTime.now(), userId, filePaths, 0, 0, 0, userAvatar);
+        Post saved = postRepository.save(post);
+        communityStatsService.postCreated(userId);
+        return saved;
     }
     public PostResponse getPostById(String id) {
         Post post = postRepository.findById(id).get();
-        User user = userRepository.findById(post.getUserId()).orElse(null);
-        PostResponse response = new PostResponse();
-        response.setId(post.getId());
-        response.setTitle(post.getTitle());
-        response.setContent(post.getContent());
-        response.setFilePaths(post.getFilePaths());
-        response.setCreatedTime(post.getCreatedAt().toString());
-        response.setUpdatedTime(post.getUpdatedTime().toString());
-        response.setUserId(post.getUserId());
-        response.setUsername(user.getUsername());
-        response.setCommentCount(post.getCommentCount());
-        response.setVoteCount(post.getVoteCount());
-        response.setState(post.getState());
-        response.setUserAvatar(post.getUserAvatar());
-        return response;
+        User user = userCacheService.findById(post.getUserId()).orElse(null);
+        return toPostResponse(post, user);
     }
     public boolean deletePostById(String id) {
-        if (postRepository.existsById(id)) {
-            postRepository.deleteById(id);
-            return true;
+        Post post = postRepository.findById(id).orElse(null);
+        if (post == null) {
+            return false;
         }
-        return false;
+        postRepository.deleteById(id);
+        communityStatsService.postDeleted(post);
+        return true;
     }
 
+    /**
+     * 按发布时间从旧到新的第 page 页（每页 10 条），新客户端应使用 getFeed
+     */
     public List<PostResponse> getPostsByPage(int page) {
-        List<Post> posts = postRepository.findByPage(page);
-        return posts.stream().map(post -> {
-            User user = userRepository.findById(post.getUserId()).orElse(null);
-            PostResponse response = new PostResponse();
-            response.setId(post.getId());
-            response.setTitle(post.getTitle());
-            response.setContent(post.getContent());
-            response.setFilePaths(post.getFilePaths());
-            response.setCreatedTime(post.getCreatedAt().toString());
-            response.setUpdatedTime(post.getUpdatedTime().toString());
-            response.setUserId(post.getUserId());
-            response.setUsername(user.getUsername());
-            response.setCommentCount(post.getCommentCount());
-            response.setVoteCount(post.getVoteCount());
-            response.setState(post.getState());
-            response.setUserAvatar(post.getUserAvatar());
-            return response;
-        }).collect(Collectors.toList());
+        List<Post> posts = postRepository.findAllBy(legacyPage(page));
+        return toPostResponses(posts);
     }
     // 随机获取10条帖子
     public List<PostResponse> getRandomPostResponses() {
-        List<Post> posts = postRepository.findRandomPosts(10);  // 随机10条
-        return posts.stream().map(post -> {
-            User user = userRepository.findById(post.getUserId()).orElse(null);
-            PostResponse response = new PostResponse();
-            response.setId(post.getId());
-            response.setTitle(post.getTitle());
-            response.setContent(post.getContent());
-            response.setFilePaths(post.getFilePaths());
-            response.setCreatedTime(post.getCreatedAt().toString());
-            response.setUpdatedTime(post.getUpdatedTime().toString());
-            response.setUserId(post.getUserId());
-            response.setUsername(user.getUsername());
-            response.setCommentCount(post.getCommentCount());
-            response.setVoteCount(post.getVoteCount());
-            response.setState(post.getState());
-            response.setUserAvatar(post.getUserAvatar());
-            return response;
-        }).collect(Collectors.toList());
+        List<Post> posts = discoverFeedService.sample(10);  // 随机10条
+        return toPostResponses(posts);
     }
     public long getPostCount() {
         return postRepository.count();
     }
     public List<PostResponse> getPostsByUserPage(String userId, int page) {
-        List<Post> posts = postRepository.findByUserIdAndPage(userId, page);
-        return posts.stream().map(post -> {
-            User user = userRepository.findById(post.getUserId()).orElse(null);
-            PostResponse response = new PostResponse();
-            response.setId(post.getId());
-            response.setTitle(post.getTitle());
-            response.setContent(post.getContent());
-            response.setFilePaths(post.getFilePaths());
-            response.setCreatedTime(post.getCreatedAt().toString());
-            response.setUpdatedTime(post.getUpdatedTime().toString());
-            response.setUserId(post.getUserId());
-            response.setUsername(user.getUsername());
-            response.setCommentCount(post.getCommentCount());
-            response.setVoteCount(post.getVoteCount());
-            response.setState(post.getState());
-            response.setUserAvatar(post.getUserAvatar());
-            return response;
-        }).collect(Collectors.toList());
+        List<Post> posts = postRepository.findByUserId(userId, legacyPage(page));
+        return toPostResponses(posts);
+    }
+
+    /**
+     * 帖子流：按发布时间从新到旧游标分页
+     * @param cursor 上一页返回的 nextCursor，第一页为空
+     * @throws IllegalArgumentException 游标或分页大小不合法
+     */
+    public CursorPage<PostResponse> getFeed(String cursor, int size) {
+        return findFeed(new Query(), cursor, size);
+    }
+
+    /**
+     * 某用户的帖子流，按发布时间从新到旧游标分页
+     */
+    public CursorPage<PostResponse> getUserFeed(String userId, String cursor, int size) {
+        return findFeed(new Query(Criteria.where("userId").is(userId)), cursor, size);
+    }
+
+    private CursorPage<PostResponse> findFeed(Query filterQuery, String cursor, int size) {
+        Query query = KeysetPager.applyByTime(filterQuery, "createdAt", cursor, size, Sort.Direction.DESC);
+        CursorPage<Post> posts = KeysetPager.toCursorPage(mongoTemplate.find(query, Post.class), size,
+                post -> KeysetPager.encodeTime(post.getCreatedAt(), new ObjectId(post.getId())), post -> post);
+        CursorPage<PostResponse> page = new CursorPage<>();
+        page.setItems(toPostResponses(posts.getItems()));
+        page.setNextCursor(posts.getNextCursor());
+        return page;
+    }
+
+    private static Pageable legacyPage(int page) {
+        return PageRequest.of(Math.max(page, 1) - 1, 10, Sort.by(Sort.Direction.ASC, "createdAt", "_id"));
     }
     public List<PostResponse> getPostSearch(String keyword, int page) {
-        List<Post> posts = postRepository.findByKeywordAndPage(keyword, page);
-        return posts.stream().map(post -> {
-            User user = userRepository.findById(post.getUserId()).orElse(null);
-            PostResponse response = new PostResponse();
-            response.setId(post.getId());
-            response.setTitle(post.getTitle());
-            response.setContent(post.getContent());
-            response.setFilePaths(post.getFilePaths());
-            response.setCreatedTime(post.getCreatedAt().toString());
-            response.setUpdatedTime(post.getUpdatedTime().toString());
-            response.setUserId(post.getUserId());
-            response.setUsername(user.getUsername());
-            response.setCommentCount(post.getCommentCount());
-            response.setVoteCount(post.getVoteCount());
-            response.setState(post.getState());
-            response.setUserAvatar(post.getUserAvatar());
-            return response;
-        }).collect(Collectors.toList());
+        List<Post> posts = postSearchService.search(keyword, page);
+        return toPostResponses(posts);
     }
     public List<PostResponse> getPostSearch(String keyword) {
-        List<Post> posts = postRepository.findByKeyword(keyword);
-        return posts.stream().map(post -> {
-            User user = userRepository.findById(post.getUserId()).orElse(null);
-            PostResponse response = new PostResponse();
-            response.setId(post.getId());
-            response.setTitle(post.getTitle());
-            response.setContent(post.getContent());
-            response.setFilePaths(post.getFilePaths());
-            response.setCreatedTime(post.getCreatedAt().toString());
-            response.setUpdatedTime(post.getUpdatedTime().toString());
-            response.setUserId(post.getUserId());
-            response.setUsername(user.getUsername());
-            response.setCommentCount(post.getCommentCount());
-            response.setVoteCount(post.getVoteCount());
-            response.setState(post.getState());
-            response.setUserAvatar(post.getUserAvatar());
-            return response;
-        }).collect(Collectors.toList());
+        List<Post> posts = postSearchService.searchAll(keyword);
+        return toPostResponses(posts);
     }
     public int getPostSearchCount(String keyword) {
-        List<Post> posts = postRepository.findByKeyword(keyword);
-        return posts.size();
+        return (int) postSearchService.count(keyword);
     }
     public int getPostVoteCount(String postId, String userId, String upvote) {
-        Post post = postRepository.findById(postId).get();
-        Vote vote = new Vote(LocalDateTime.now(), userId, upvote, postId);
-        voteRepository.save(vote);
-        if (Objects.equals(upvote, "true")) {
-            post.setLike(post.getLike() + 1);
-            post.setVoteCount(post.getVoteCount() + 1);
-            postRepository.save(post);
-        }
-        else if(Objects.equals(upvote, "false")) {
-            post.setDislike(post.getDislike() + 1);
-            post.setVoteCount(post.getVoteCount() - 1);
-            postRepository.save(post);
-        }
-        else if(upvote == null) {
-            if(voteRepository.existsByUserId(userId)) {
-                if(vote.getUpvote().equals("true")) {
-                    post.setLike(post.getLike() - 1);
-                    post.setVoteCount(post.getVoteCount() - 1);
-                    postRepository.save(post);
-                }
-                else if(vote.getUpvote().equals("false")) {
-                    post.setDislike(post.getDislike() - 1);
-                    post.setVoteCount(post.getVoteCount() + 1);
-                    postRepository.save(post);
-                }
-            }
-        }
-        return post.getVoteCount();
+        return voteService.vote(postId, userId, upvote);
     }
     public int getPostVote(String postId, String userId) {
         if (voteRepository.existsByUserIdAndPostId(userId, postId)) {
@@ -268,20 +205,39 @@ public class CommunityService {
     }
     public void addComment(CommentRequest request) {
         Comment comment = new Comment(request.getPostId(), request.getContent(), request.getUserId(), LocalDateTime.now(), LocalDateTime.now(), request.getParentComment());
-        Post post = postRepository.findById(request.getPostId()).orElse(null);
-        if (post != null) {
-            post.setCommentCount(post.getCommentCount() + 1);
-            postRepository.save(post);
-
-        }
         commentRepository.save(comment);
+        incrementCommentCount(request.getPostId(), 1);
+        communityStatsService.commentAdded(request.getUserId());
     }
     public void deleteComment(String CommentId) {
         Comment comment = commentRepository.findById(CommentId).get();
         commentRepository.delete(comment);
+        incrementCommentCount(comment.getPostId(), -1);
+        communityStatsService.commentDeleted(comment.getUserId());
     }
+    /**
+     * 帖子最早的评论，最多 COMMENT_LIST_LIMIT 条，完整的评论列表使用 getCommentPage 分页读取
+     */
     public List<Comment> getCommentList(String postId) {
-        return commentRepository.findByPostId(postId);
+        return commentRepository.findByPostId(postId,
+                PageRequest.of(0, COMMENT_LIST_LIMIT, Sort.by(Sort.Direction.ASC, "createdTime", "_id")));
+    }
+    /**
+     * 按发布时间从旧到新游标分页读取帖子的评论
+     * @param cursor 上一页返回的 nextCursor，第一页为空
+     * @throws IllegalArgumentException 游标或分页大小不合法
+     */
+    public CursorPage<Comment> getCommentPage(String postId, String cursor, int size) {
+        Query query = KeysetPager.applyByTime(new Query(Criteria.where("postId").is(postId)),
+                "createdTime", cursor, size, Sort.Direction.ASC);
+        return KeysetPager.toCursorPage(mongoTemplate.find(query, Comment.class), size,
+                comment -> KeysetPager.encodeTime(comment.getCreatedTime(), new ObjectId(comment.getId())),
+                comment -> comment);
+    }
+    // 原子地更新帖子的评论数，帖子不存在时不做任何操作
+    private void incrementCommentCount(String postId, int delta) {
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(postId)),
+                new Update().inc("commentCount", delta), Post.class);
     }
 
     public boolean existPost(String postId) {
@@ -293,56 +249,33 @@ public class CommunityService {
     }
     public List<PostResponse> getPostSearchUser(String userId) {
         List<Post> posts = postRepository.findByUserId(userId); // 假设有对应的查询方法
-        User user = userRepository.findById(userId).get();
-        return posts.stream().map(post -> {
-            PostResponse response = new PostResponse();
-            response.setId(post.getId());
-            response.setTitle(post.getTitle());
-            response.setContent(post.getContent());
-            response.setFilePaths(post.getFilePaths());
-            response.setCreatedTime(post.getCreatedAt().toString());
-            response.setUpdatedTime(post.getUpdatedTime().toString());
-            response.setUserId(post.getUserId());
-            response.setUsername(user.getUsername());
-            response.setCommentCount(post.getCommentCount());
-            response.setVoteCount(post.getVoteCount());
-            response.setState(post.getState());
-            response.setUserAvatar(post.getUserAvatar());
-            return response;
-        }).collect(Collectors.toList());
+        User user = userCacheService.findById(userId).get();
+        return posts.stream()
+                .map(post -> toPostResponse(post, user))
+                .collect(Collectors.toList());
     }
     // 举报帖子
     public void reportPost(String postId, String message) {
-        Post post = postRepository.findById(postId).get();
-        post.setState("reported");
-        post.setMessage(message);
-        postRepository.save(post);
+        updatePostFields(postId, new Update().set("state", "reported").set("message", message));
     }
     // 查询某状态的所有帖子
     public List<PostResponse> getPostState(String state) {
         List<Post> posts = postRepository.findByState(state); // 假设有对应的查询方法
-        return posts.stream().map(post -> {
-            User user = userRepository.findById(post.getUserId()).orElse(null);
-            PostResponse response = new PostResponse();
-            response.setId(post.getId());
-            response.setTitle(post.getTitle());
-            response.setContent(post.getContent());
-            response.setFilePaths(post.getFilePaths());
-            response.setCreatedTime(post.getCreatedAt().toString());
-            response.setUpdatedTime(post.getUpdatedTime().toString());
-            response.setUserId(post.getUserId());
-            response.setUsername(user.getUsername());
-            response.setCommentCount(post.getCommentCount());
-            response.setVoteCount(post.getVoteCount());
-            response.setState(post.getState());
-            response.setUserAvatar(post.getUserAvatar());
-            return response;
-        }).collect(Collectors.toList());
+        return toPostResponses(posts);
     }
     public void setState(String postId, String state) {
-        Post post = postRepository.findById(postId).get();
-        post.setState(state);
-        postRepository.save(post);
+        updatePostFields(postId, new Update().set("state", state));
+    }
+
+    /**
+     * 只更新帖子的指定字段，不整体保存帖子，避免覆盖并发的投票、评论计数 $inc
+     * @throws NoSuchElementException 帖子不存在
+     */
+    private void updatePostFields(String postId, Update update) {
+        if (mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(postId)), update, Post.class)
+                .getMatchedCount() == 0) {
+            throw new NoSuchElementException("帖子不存在: " + postId);
+        }
     }
     public void comsearchpoststatement(String commentId, String message) {
         Comment comment = commentRepository.findById(commentId).get();
@@ -359,28 +292,23 @@ public class CommunityService {
 
         Page<User> page = userRepository.findAll(pageable);
         List<User> users = page.getContent();
+        // 整页用户的统计一次读取，不再逐个用户加载帖子和评论
+        Map<String, UserCommunityStats> statsByUser = communityStatsService.getStats(
+                users.stream().map(User::getUserId).collect(Collectors.toList()));
         List <UserResponse> userResponses = new ArrayList<>();
         for (User user : users) {
             UserResponse response = new UserResponse();
             response.setId(id);
             response.setUserId(user.getUserId());
             response.setUsername(user.getUsername());
-            List <Post> posts = postRepository.findByUserId(user.getUserId());
-            int like = 0, dislike = 0;
-            for (Post post : posts) {
-                like += post.getLike();
-                dislike += post.getDislike();
-            }
-            response.setPostCount(posts.size());
-            response.setCommentCount(commentRepository.findByUserId(user.getUserId()).size());
-            response.setLikeCount(like);
-            response.setDislikeCount(dislike);
-            List<UserState> messages = userMessageRepository.findByUserId(user.getUserId());
-            if (!messages.isEmpty()) {
-                response.setState(messages.get(0).getState()); // 或者其他合适策略
-            } else {
-                response.setState("normal");
+            UserCommunityStats stats = statsByUser.get(user.getUserId());
+            if (stats != null) {
+                response.setPostCount(stats.getPostCount());
+                response.setCommentCount(stats.getCommentCount());
+                response.setLikeCount(stats.getLikeCount());
+                response.setDislikeCount(stats.getDislikeCount());
             }
+            response.setState(stats != null && stats.getState() != null ? stats.getState() : "normal");
 
             userResponses.add(response);
         }
@@ -389,8 +317,49 @@ public class CommunityService {
     public void setUserState(String userId, String state, String message) {
         UserState userState = new UserState(userId, state, message);
         userMessageRepository.save(userState);
+        communityStatsService.stateChanged(userId, state);
+    }
+    public int rebuildUserStats() {
+        return communityStatsService.rebuild();
     }
     public Comment getComment(String commentId) {
         return commentRepository.findById(commentId).get();
     }
+
+    /**
+     * 批量转换帖子：先收集一页帖子中不重复的作者ID，一次批量读取作者（有缓存），避免每个帖子查询一次用户
+     */
+    private List<PostResponse> toPostResponses(List<Post> posts) {
+        Set<String> authorIds = posts.stream()
+                .map(Post::getUserId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<String, User> authors = userCacheService.findAllById(authorIds);
+        return posts.stream()
+                .map(post -> toPostResponse(post, authors.get(post.getUserId())))
+                .collect(Collectors.toList());
+    }
+
+    private PostResponse toPostResponse(Post post, User author) {
+        PostResponse response = new PostResponse();
+        response.setId(post.getId());
+        response.setTitle(post.getTitle());
+        response.setContent(post.getContent());
+        response.setFilePaths(post.getFilePaths());
+        response.setCreatedTime(post.getCreatedAt().toString());
+        response.setUpdatedTime(post.getUpdatedTime().toString());
+        response.setUserId(post.getUserId());
+        response.setCommentCount(post.getCommentCount());
+        response.setVoteCount(post.getVoteCount());
+        response.setState(post.getState());
+        // 优先使用作者当前的头像，作者不存在时使用发帖时保存的头像
+        response.setUserAvatar(post.getUserAvatar());
+        if (author != null) {
+            response.setUsername(author.getUsername());
+            if (author.getAvatarUrl() != null) {
+                response.setUserAvatar(author.getAvatarUrl());
+            }
+        }
+        return response;
+    }
 }
@@ -0,0 +1,200 @@
+package com.tongji.wordtrail.service;
+
+import com.tongji.wordtrail.model.Comment;
+import com.tongji.wordtrail.model.Post;
+import com.tongji.wordtrail.model.UserCommunityStats;
+import com.tongji.wordtrail.model.UserState;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * 用户社区统计服务：发帖、评论、投票、设置用户状态时用 $inc / $set 增量更新 user_community_stats，
+ * 管理端的用户列表一次 $in 查询即可读取整页用户的统计
+ * rebuild 从 posts / comment / userState 重新计算全部统计，用于初始化和修复
+ */
+@Service
+@Slf4j
+public class CommunityStatsService {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public CommunityStatsService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    public void postCreated(String userId) {
+        increment(userId, new Update().inc("postCount", 1));
+    }
+
+    /**
+     * 帖子删除后，同时扣除帖子获得的赞/踩
+     */
+    public void postDeleted(Post post) {
+        increment(post.getUserId(), new Update()
+                .inc("postCount", -1)
+                .inc("likeCount", -post.getLike())
+                .inc("dislikeCount", -post.getDislike()));
+    }
+
+    public void commentAdded(String userId) {
+        increment(userId, new Update().inc("commentCount", 1));
+    }
+
+    public void commentDeleted(String userId) {
+        increment(userId, new Update().inc("commentCount", -1));
+    }
+
+    /**
+     * 帖子的赞/踩数量变化后更新帖子作者的统计
+     */
+    public void votesChanged(String authorId, int likeDelta, int dislikeDelta) {
+        if (likeDelta == 0 && dislikeDelta == 0) {
+            return;
+        }
+        increment(authorId, new Update().inc("likeCount", likeDelta).inc("dislikeCount", dislikeDelta));
+    }
+
+    public void stateChanged(String userId, String state) {
+        increment(userId, new Update().set("state", state));
+    }
+
+    /**
+     * 批量读取用户统计，没有统计记录的用户不包含在结果中（视为全部为 0）
+     */
+    public Map<String, UserCommunityStats> getStats(Collection<String> userIds) {
+        Map<String, UserCommunityStats> result = new HashMap<>();
+        if (userIds.isEmpty()) {
+            return result;
+        }
+        for (UserCommunityStats stats : mongoTemplate.find(
+                new Query(Criteria.where("_id").in(userIds)), UserCommunityStats.class)) {
+            result.put(stats.getUserId(), stats);
+        }
+        return result;
+    }
+
+    /**
+     * 从帖子、评论和用户状态重新计算所有用户的统计
+     * 重建期间发生的写入可能被覆盖，应在低峰期执行
+     * @return 写入的统计记录数
+     */
+    public int rebuild() {
+        return rebuild(null);
+    }
+
+    /**
+     * 只重新计算指定用户的统计，其他用户的统计记录不受影响
+     * @param userIds 要重建的用户，为 null 时重建全部用户
+     * @return 写入的统计记录数
+     */
+    public int rebuild(Collection<String> userIds) {
+        Criteria scope = userIds == null ? null : Criteria.where("userId").in(userIds);
+        Map<String, UserCommunityStats> rebuilt = new HashMap<>();
+
+        Aggregation postsByUser = Aggregation.newAggregation(scoped(scope,
+                Aggregation.group("userId").count().as("postCount").sum("like").as("likeCount")
+                        .sum("dislike").as("dislikeCount")));
+        for (Document row : mongoTemplate.aggregate(postsByUser, Post.class, Document.class)) {
+            UserCommunityStats stats = statsOf(rebuilt, row.getString("_id"));
+            if (stats != null) {
+                stats.setPostCount(intValue(row.get("postCount")));
+                stats.setLikeCount(intValue(row.get("likeCount")));
+                stats.setDislikeCount(intValue(row.get("dislikeCount")));
+            }
+        }
+
+        Aggregation commentsByUser = Aggregation.newAggregation(scoped(scope,
+                Aggregation.group("userId").count().as("commentCount")));
+        for (Document row : mongoTemplate.aggregate(commentsByUser, Comment.class, Document.class)) {
+            UserCommunityStats stats = statsOf(rebuilt, row.getString("_id"));
+            if (stats != null) {
+                stats.setCommentCount(intValue(row.get("commentCount")));
+            }
+        }
+
+        // userState 的 _id 是自动生成的 ObjectId，用户保存在 userId 字段中，同一用户可能有多条记录
+        // 按 _id 倒序后取每个用户的第一条，即最近一次设置的状态
+        Aggregation latestStateByUser = Aggregation.newAggregation(scoped(scope,
+                Aggregation.sort(Sort.Direction.DESC, "_id"),
+                Aggregation.group("userId").first("state").as("state")));
+        for (Document row : mongoTemplate.aggregate(latestStateByUser,
+                mongoTemplate.getCollectionName(UserState.class), Document.class)) {
+            UserCommunityStats stats = statsOf(rebuilt, row.getString("_id"));
+            if (stats != null) {
+                stats.setState(row.getString("state"));
+            }
+        }
+
+        if (!rebuilt.isEmpty()) {
+            BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, UserCommunityStats.class);
+            for (UserCommunityStats stats : rebuilt.values()) {
+                bulkOps.replaceOne(new Query(Criteria.where("_id").is(stats.getUserId())), stats,
+                        FindAndReplaceOptions.options().upsert());
+            }
+            bulkOps.execute();
+        }
+        // 已经没有任何帖子、评论和状态的用户
+        Criteria stale = Criteria.where("_id").nin(rebuilt.keySet());
+        if (userIds != null) {
+            stale = new Criteria().andOperator(Criteria.where("_id").in(userIds), stale);
+        }
+        mongoTemplate.remove(new Query(stale), UserCommunityStats.class);
+
+        log.info("Rebuilt community stats for {} users", rebuilt.size());
+        return rebuilt.size();
+    }
+
+    /**
+     * 首次部署时统计集合为空，启动后从已有数据回填
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        try {
+            if (mongoTemplate.estimatedCount(UserCommunityStats.class) == 0) {
+                rebuild();
+            }
+        } catch (Exception e) {
+            log.error("Failed to backfill community stats", e);
+        }
+    }
+
+    private void increment(String userId, Update update) {
+        if (userId == null) {
+            return;
+        }
+        mongoTemplate.upsert(new Query(Criteria.where("_id").is(userId)), update, UserCommunityStats.class);
+    }
+
+    private static UserCommunityStats statsOf(Map<String, UserCommunityStats> rebuilt, String userId) {
+        return userId == null ? null : rebuilt.computeIfAbsent(userId, UserCommunityStats::new);
+    }
+
+    private static List<AggregationOperation> scoped(Criteria scope, AggregationOperation... operations) {
+        List<AggregationOperation> pipeline = new ArrayList<>();
+        if (scope != null) {
+            pipeline.add(Aggregation.match(scope));
+        }
+        pipeline.addAll(Arrays.asList(operations));
+        return pipeline;
+    }
+
+    private static int intValue(Object value) {
+        return value instanceof Number ? ((Number) value).intValue() : 0;
+    }
+}
@@ -0,0 +1,348 @@
+package com.tongji.wordtrail.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 混淆选项索引：在内存中按 语言/难度/单词长度 对 words 集合分桶，
+ * 生成混淆选项时直接从桶中随机抽样，不再查询数据库
+ * 单词新增、修改、删除时由 WordService 增量更新
+ */
+@Service
+@Slf4j
+public class ConfusionIndexService {
+
+    private static final String WORDS = "words";
+    // 长度相差不超过该值的单词视为相似
+    private static final int LENGTH_TOLERANCE = 2;
+    // 每个需要的选项最多随机尝试的次数，超过后在桶内顺序补齐
+    private static final int SAMPLE_ATTEMPTS_PER_OPTION = 8;
+
+    private final MongoTemplate mongoTemplate;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<ObjectId, Entry> entries = new HashMap<>();
+    // language|difficulty|length
+    private final Map<String, Bucket> lengthBuckets = new HashMap<>();
+    // language|difficulty
+    private final Map<String, Bucket> difficultyBuckets = new HashMap<>();
+    // language
+    private final Map<String, Bucket> languageBuckets = new HashMap<>();
+    private volatile boolean loaded;
+
+    @Autowired
+    public ConfusionIndexService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * 为目标单词抽取混淆选项
+     * 优先选择同语言、同难度、长度相近的单词，不够时依次放宽到同难度、同语言
+     * @param wordId 目标单词ID
+     * @param count 需要的选项数量
+     * @param exclude 不能使用的单词（例如同一份测验中已经用过的选项）
+     * @return 混淆选项的单词ID，数量可能少于 count（词库不足时）
+     * @throws IllegalArgumentException 单词不存在
+     */
+    public List<ObjectId> sampleDistractors(ObjectId wordId, int count, Set<ObjectId> exclude) {
+        Entry target = getEntry(wordId);
+
+        lock.readLock().lock();
+        try {
+            Set<ObjectId> picked = new LinkedHashSet<>();
+            List<Bucket> similar = new ArrayList<>();
+            for (int length = target.length - LENGTH_TOLERANCE; length <= target.length + LENGTH_TOLERANCE; length++) {
+                Bucket bucket = lengthBuckets.get(lengthKey(target.language, target.difficulty, length));
+                if (bucket != null) {
+                    similar.add(bucket);
+                }
+            }
+            sampleInto(similar, count, target.id, exclude, picked);
+            sampleInto(bucketsOf(difficultyBuckets.get(difficultyKey(target.language, target.difficulty))),
+                    count, target.id, exclude, picked);
+            sampleInto(bucketsOf(languageBuckets.get(target.language)), count, target.id, exclude, picked);
+            return new ArrayList<>(picked);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 单词已在索引中（或能从数据库中找到）
+     */
+    public boolean contains(ObjectId wordId) {
+        try {
+            getEntry(wordId);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 单词保存或修改后更新索引
+     * @param document 单词的最新内容，至少包含 _id、word、language、difficulty
+     */
+    public void put(Document document) {
+        if (document == null || !(document.get("_id") instanceof ObjectId)) {
+            return;
+        }
+        Entry entry = toEntry(document);
+        // 先加锁再检查 loaded：正在构建索引时等构建完成后再应用，避免构建游标已经读过的修改丢失
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            removeEntry(entry.id);
+            addEntry(entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 单词删除后从索引中移除
+     */
+    public void remove(ObjectId wordId) {
+        if (wordId == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            removeEntry(wordId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 丢弃当前索引，下次使用时重新从数据库构建
+     */
+    public void invalidateAll() {
+        lock.writeLock().lock();
+        try {
+            clear();
+            loaded = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Entry getEntry(ObjectId wordId) {
+        ensureLoaded();
+
+        lock.readLock().lock();
+        try {
+            Entry entry = entries.get(wordId);
+            if (entry != null) {
+                return entry;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // 索引中没有，可能是绕过 WordService 直接写入的单词，回源数据库一次
+        Document document = mongoTemplate.findOne(projectedQuery(Criteria.where("_id").is(wordId)), Document.class, WORDS);
+        if (document == null) {
+            throw new IllegalArgumentException("Word not found");
+        }
+        put(document);
+        return toEntry(document);
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                return;
+            }
+            clear();
+            try (CloseableIterator<Document> documents =
+                         mongoTemplate.stream(projectedQuery(new Criteria()), Document.class, WORDS)) {
+                while (documents.hasNext()) {
+                    addEntry(toEntry(documents.next()));
+                }
+            }
+            loaded = true;
+            log.info("Built confusion index with {} words", entries.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Query projectedQuery(Criteria criteria) {
+        Query query = new Query(criteria);
+        query.fields().include("word", "language", "difficulty");
+        return query;
+    }
+
+    /**
+     * 从若干个桶（视为一个整体）中随机抽取单词，直到 picked 达到 count
+     * 每次抽样 O(1)：随机一个下标，定位到对应的桶
+     */
+    private void sampleInto(List<Bucket> buckets, int count, ObjectId targetId, Set<ObjectId> exclude,
+                            Set<ObjectId> picked) {
+        if (picked.size() >= count || buckets.isEmpty()) {
+            return;
+        }
+        int total = 0;
+        for (Bucket bucket : buckets) {
+            total += bucket.size();
+        }
+        if (total == 0) {
+            return;
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int attempts = (count - picked.size()) * SAMPLE_ATTEMPTS_PER_OPTION;
+        while (picked.size() < count && attempts-- > 0) {
+            int index = random.nextInt(total);
+            for (Bucket bucket : buckets) {
+                if (index < bucket.size()) {
+                    addIfAllowed(bucket.get(index), targetId, exclude, picked);
+                    break;
+                }
+                index -= bucket.size();
+            }
+        }
+
+        // 桶里大部分单词都被排除时随机命中率很低，顺序补齐
+        for (Bucket bucket : buckets) {
+            for (int i = 0; i < bucket.size() && picked.size() < count; i++) {
+                addIfAllowed(bucket.get(i), targetId, exclude, picked);
+            }
+        }
+    }
+
+    private void addIfAllowed(ObjectId id, ObjectId targetId, Set<ObjectId> exclude, Set<ObjectId> picked) {
+        if (!id.equals(targetId) && (exclude == null || !exclude.contains(id))) {
+            picked.add(id);
+        }
+    }
+
+    private List<Bucket> bucketsOf(Bucket bucket) {
+        return bucket != null ? Collections.singletonList(bucket) : Collections.emptyList();
+    }
+
+    private void addEntry(Entry entry) {
+        entries.put(entry.id, entry);
+        lengthBuckets.computeIfAbsent(lengthKey(entry.language, entry.difficulty, entry.length), k -> new Bucket())
+                .add(entry.id);
+        difficultyBuckets.computeIfAbsent(difficultyKey(entry.language, entry.difficulty), k -> new Bucket())
+                .add(entry.id);
+        languageBuckets.computeIfAbsent(entry.language, k -> new Bucket()).add(entry.id);
+    }
+
+    private void removeEntry(ObjectId wordId) {
+        Entry entry = entries.remove(wordId);
+        if (entry == null) {
+            return;
+        }
+        removeFrom(lengthBuckets, lengthKey(entry.language, entry.difficulty, entry.length), wordId);
+        removeFrom(difficultyBuckets, difficultyKey(entry.language, entry.difficulty), wordId);
+        removeFrom(languageBuckets, entry.language, wordId);
+    }
+
+    private void removeFrom(Map<String, Bucket> buckets, String key, ObjectId wordId) {
+        Bucket bucket = buckets.get(key);
+        if (bucket != null) {
+            bucket.remove(wordId);
+            if (bucket.size() == 0) {
+                buckets.remove(key);
+            }
+        }
+    }
+
+    private void clear() {
+        entries.clear();
+        lengthBuckets.clear();
+        difficultyBuckets.clear();
+        languageBuckets.clear();
+    }
+
+    private static Entry toEntry(Document document) {
+        Object word = document.get("word");
+        Object language = document.get("language");
+        Object difficulty = document.get("difficulty");
+        return new Entry(document.getObjectId("_id"),
+                language != null ? language.toString() : "",
+                difficulty instanceof Number ? String.valueOf(((Number) difficulty).intValue()) : String.valueOf(difficulty),
+                word != null ? word.toString().length() : 0);
+    }
+
+    private static String difficultyKey(String language, String difficulty) {
+        return language + "|" + difficulty;
+    }
+
+    private static String lengthKey(String language, String difficulty, int length) {
+        return language + "|" + difficulty + "|" + length;
+    }
+
+    private static class Entry {
+        final ObjectId id;
+        final String language;
+        final String difficulty;
+        final int length;
+
+        Entry(ObjectId id, String language, String difficulty, int length) {
+            this.id = id;
+            this.language = language;
+            this.difficulty = difficulty;
+            this.length = length;
+        }
+    }
+
+    /**
+     * 支持 O(1) 随机访问和 O(1) 删除（与末尾元素交换）的单词集合
+     */
+    private static class Bucket {
+        private final List<ObjectId> ids = new ArrayList<>();
+        private final Map<ObjectId, Integer> positions = new HashMap<>();
+
+        void add(ObjectId id) {
+            if (!positions.containsKey(id)) {
+                positions.put(id, ids.size());
+                ids.add(id);
+            }
+        }
+
+        void remove(ObjectId id) {
+            Integer position = positions.remove(id);
+            if (position == null) {
+                return;
+            }
+            ObjectId last = ids.remove(ids.size() - 1);
+            if (position < ids.size()) {
+                ids.set(position, last);
+                positions.put(last, position);
+            }
+        }
+
+        ObjectId get(int index) {
+            return ids.get(index);
+        }
+
+        int size() {
+            return ids.size();
+        }
+    }
+}
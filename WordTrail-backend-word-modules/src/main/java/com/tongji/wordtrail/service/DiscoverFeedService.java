@@ -0,0 +1,136 @@
+package com.tongji.wordtrail.service;
+
+import com.tongji.wordtrail.model.Post;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 发现页随机帖子
+ * 在内存中维护一个打乱顺序的候选帖子ID池（最近发布的、状态正常的帖子），后台定时重建，
+ * 每次请求从池中轮转取出下一批ID，用一次 _id $in 查询读取帖子，代替每次请求都执行 $sample 聚合
+ * 读取时再次按状态过滤，池重建之前被删除或封禁的帖子不会返回
+ */
+@Service
+@Slf4j
+public class DiscoverFeedService {
+
+    private final MongoTemplate mongoTemplate;
+    private final int poolMaxSize;
+    private final long refreshSeconds;
+    private final List<String> excludedStates;
+    private final ScheduledExecutorService refresher;
+
+    private volatile List<ObjectId> pool = Collections.emptyList();
+    private final AtomicInteger position = new AtomicInteger();
+
+    @Autowired
+    public DiscoverFeedService(MongoTemplate mongoTemplate,
+                               @Value("${wordtrail.discover.pool-size:5000}") int poolMaxSize,
+                               @Value("${wordtrail.discover.refresh-seconds:300}") long refreshSeconds,
+                               @Value("${wordtrail.discover.excluded-states:deleted,banned}") String[] excludedStates) {
+        this.mongoTemplate = mongoTemplate;
+        this.poolMaxSize = poolMaxSize;
+        this.refreshSeconds = refreshSeconds;
+        this.excludedStates = Arrays.asList(excludedStates);
+        this.refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "discover-pool-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startRefreshing() {
+        refresher.scheduleWithFixedDelay(this::refreshQuietly, 0, refreshSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    /**
+     * 取出 size 条随机帖子，池中帖子不足时返回全部
+     */
+    public List<Post> sample(int size) {
+        List<ObjectId> current = pool;
+        if (current.isEmpty()) {
+            // 后台还没有完成第一次重建
+            refresh();
+            current = pool;
+        }
+        if (current.isEmpty() || size <= 0) {
+            return new ArrayList<>();
+        }
+
+        int count = Math.min(size, current.size());
+        int start = Math.floorMod(position.getAndAdd(count), current.size());
+        List<ObjectId> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(current.get((start + i) % current.size()));
+        }
+
+        Map<String, Post> postsById = new HashMap<>();
+        for (Post post : mongoTemplate.find(new Query(Criteria.where("_id").in(ids).and("state").nin(excludedStates)), Post.class)) {
+            postsById.put(post.getId(), post);
+        }
+        List<Post> posts = new ArrayList<>(postsById.size());
+        for (ObjectId id : ids) {
+            Post post = postsById.get(id.toHexString());
+            if (post != null) {
+                posts.add(post);
+            }
+        }
+        return posts;
+    }
+
+    /**
+     * 重建候选池：读取最近发布的 poolMaxSize 条状态正常的帖子ID并打乱
+     */
+    public void refresh() {
+        Query query = new Query(Criteria.where("state").nin(excludedStates))
+                .with(Sort.by(Sort.Direction.DESC, "createdAt", "_id"))
+                .limit(poolMaxSize);
+        query.fields().include("_id");
+        List<ObjectId> ids = new ArrayList<>();
+        for (Document document : mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(Post.class))) {
+            Object id = document.get("_id");
+            if (id instanceof ObjectId) {
+                ids.add((ObjectId) id);
+            }
+        }
+        Collections.shuffle(ids);
+        pool = Collections.unmodifiableList(ids);
+        position.set(0);
+        log.debug("Refreshed discover pool with {} posts", ids.size());
+    }
+
+    int poolSize() {
+        return pool.size();
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            log.error("Failed to refresh discover pool", e);
+        }
+    }
+}
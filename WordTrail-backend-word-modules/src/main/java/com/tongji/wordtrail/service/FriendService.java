@@ -19,15 +19,18 @@ public class FriendService {
     private final UserFriendRepository friendRepository;
     private final FriendRequestRepository requestRepository;
     private final UserRepository userRepository;
+    private final UserCacheService userCacheService;
 
     @Autowired
     public FriendService(
             UserFriendRepository friendRepository,
             FriendRequestRepository requestRepository,
-            UserRepository userRepository) {
+            UserRepository userRepository,
+            UserCacheService userCacheService) {
         this.friendRepository = friendRepository;
         this.requestRepository = requestRepository;
         this.userRepository = userRepository;
+        this.userCacheService = userCacheService;
     }
 
     /**
@@ -40,9 +43,9 @@ public class FriendService {
         }
 
         // 验证用户存在
-        userRepository.findById(senderId)
+        userCacheService.findById(senderId)
                 .orElseThrow(() -> new IllegalArgumentException("发送者用户不存在"));
-        userRepository.findById(receiverId)
+        userCacheService.findById(receiverId)
                 .orElseThrow(() -> new IllegalArgumentException("接收者用户不存在"));
 
         // 检查是否已经是好友
@@ -68,7 +71,8 @@ public class FriendService {
     public List<Map<String, Object>> getReceivedFriendRequests(String userId) {
         List<FriendRequest> requests = requestRepository.findByReceiverIdAndStatus(userId, "pending");
 
-        return requests.stream().map(request -> {
+        UserProfileLoader profiles = userCacheService.newLoader();
+        List<Map<String, Object>> result = requests.stream().map(request -> {
             Map<String, Object> requestInfo = new HashMap<>();
             requestInfo.put("requestId", request.getId());
             requestInfo.put("senderId", request.getSenderId());
@@ -76,13 +80,16 @@ public class FriendService {
             requestInfo.put("createTime", request.getCreateTime());
 
             // 添加发送者信息
-            userRepository.findById(request.getSenderId()).ifPresent(sender -> {
+            profiles.load(request.getSenderId(), sender -> {
                 requestInfo.put("senderUsername", sender.getUsername());
                 requestInfo.put("senderAvatar", sender.getAvatarUrl());
             });
 
             return requestInfo;
         }).collect(Collectors.toList());
+
+        profiles.dispatch();
+        return result;
     }
 
     /**
@@ -91,7 +98,8 @@ public class FriendService {
     public List<Map<String, Object>> getSentFriendRequests(String userId) {
         List<FriendRequest> requests = requestRepository.findBySenderId(userId);
 
-        return requests.stream().map(request -> {
+        UserProfileLoader profiles = userCacheService.newLoader();
+        List<Map<String, Object>> result = requests.stream().map(request -> {
             Map<String, Object> requestInfo = new HashMap<>();
             requestInfo.put("requestId", request.getId());
             requestInfo.put("receiverId", request.getReceiverId());
@@ -100,13 +108,16 @@ public class FriendService {
             requestInfo.put("createTime", request.getCreateTime());
 
             // 添加接收者信息
-            userRepository.findById(request.getReceiverId()).ifPresent(receiver -> {
+            profiles.load(request.getReceiverId(), receiver -> {
                 requestInfo.put("receiverUsername", receiver.getUsername());
                 requestInfo.put("receiverAvatar", receiver.getAvatarUrl());
             });
 
             return requestInfo;
         }).collect(Collectors.toList());
+
+        profiles.dispatch();
+        return result;
     }
 
     /**
@@ -144,7 +155,7 @@ public class FriendService {
         result.put("friendId", request.getSenderId());
 
         // 添加好友信息
-        userRepository.findById(request.getSenderId()).ifPresent(friend -> {
+        userCacheService.findById(request.getSenderId()).ifPresent(friend -> {
             result.put("friendUsername", friend.getUsername());
             result.put("friendAvatar", friend.getAvatarUrl());
         });
@@ -181,14 +192,15 @@ public class FriendService {
     public List<Map<String, Object>> getUserFriends(String userId) {
         List<UserFriend> friendships = friendRepository.findByUserIdAndStatus(userId, "active");
 
-        return friendships.stream().map(friendship -> {
+        UserProfileLoader profiles = userCacheService.newLoader();
+        List<Map<String, Object>> result = friendships.stream().map(friendship -> {
             Map<String, Object> friendInfo = new HashMap<>();
             friendInfo.put("friendshipId", friendship.getId());
             friendInfo.put("friendId", friendship.getFriendId());
             friendInfo.put("nickname", friendship.getNickname());
 
             // 添加好友详细信息
-            userRepository.findById(friendship.getFriendId()).ifPresent(friend -> {
+            profiles.load(friendship.getFriendId(), friend -> {
                 friendInfo.put("username", friend.getUsername());
                 friendInfo.put("avatar", friend.getAvatarUrl());
                 friendInfo.put("email", friend.getEmail());
@@ -196,6 +208,9 @@ public class FriendService {
 
             return friendInfo;
         }).collect(Collectors.toList());
+
+        profiles.dispatch();
+        return result;
     }
 
     /**
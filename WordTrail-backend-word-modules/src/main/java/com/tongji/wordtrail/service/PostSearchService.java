@@ -0,0 +1,115 @@
+package com.tongji.wordtrail.service;
+
+import com.tongji.wordtrail.model.Post;
+import com.tongji.wordtrail.util.SearchTokenizer;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 帖子全文检索
+ * 使用 posts 上 titleTerms / contentTerms 的文本索引（标题权重更高），
+ * 结果按相关度（textScore）排序，计数只在索引上统计，不加载帖子
+ */
+@Service
+@Slf4j
+public class PostSearchService {
+
+    public static final int PAGE_SIZE = 10;
+    private static final int BACKFILL_BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public PostSearchService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * 按相关度分页检索帖子
+     * @param page 页码，从 1 开始
+     */
+    public List<Post> search(String keyword, int page) {
+        Query query = textQuery(keyword);
+        if (query == null) {
+            return new ArrayList<>();
+        }
+        return mongoTemplate.find(query.with(PageRequest.of(Math.max(page, 1) - 1, PAGE_SIZE)), Post.class);
+    }
+
+    /**
+     * 按相关度返回全部匹配的帖子（管理端检索）
+     */
+    public List<Post> searchAll(String keyword) {
+        Query query = textQuery(keyword);
+        return query == null ? new ArrayList<>() : mongoTemplate.find(query, Post.class);
+    }
+
+    public long count(String keyword) {
+        List<String> terms = SearchTokenizer.queryTerms(keyword);
+        if (terms.isEmpty()) {
+            return 0;
+        }
+        return mongoTemplate.count(TextQuery.queryText(criteria(terms)), Post.class);
+    }
+
+    /**
+     * 为还没有分词字段的历史帖子补充分词，文本索引才能检索到它们
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillTerms() {
+        try {
+            Query query = new Query(Criteria.where("titleTerms").exists(false));
+            query.fields().include("title").include("content");
+            query.limit(BACKFILL_BATCH_SIZE);
+            int total = 0;
+            List<Document> batch;
+            while (!(batch = mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(Post.class))).isEmpty()) {
+                BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Post.class);
+                for (Document post : batch) {
+                    bulkOps.updateOne(new Query(Criteria.where("_id").is(post.get("_id"))), new Update()
+                            .set("titleTerms", SearchTokenizer.indexTerms(post.getString("title")))
+                            .set("contentTerms", SearchTokenizer.indexTerms(post.getString("content"))));
+                }
+                bulkOps.execute();
+                total += batch.size();
+            }
+            if (total > 0) {
+                log.info("Backfilled search terms for {} posts", total);
+            }
+        } catch (Exception e) {
+            log.error("Failed to backfill post search terms", e);
+        }
+    }
+
+    private static Query textQuery(String keyword) {
+        List<String> terms = SearchTokenizer.queryTerms(keyword);
+        if (terms.isEmpty()) {
+            return null;
+        }
+        return TextQuery.queryText(criteria(terms)).sortByScore();
+    }
+
+    // 每个词都作为短语匹配，文本检索默认的“任一词匹配”变为“所有词都匹配”
+    private static TextCriteria criteria(List<String> terms) {
+        TextCriteria criteria = TextCriteria.forDefaultLanguage();
+        for (String term : terms) {
+            criteria.matchingPhrase(term);
+        }
+        return criteria;
+    }
+}
@@ -1,7 +1,14 @@
 package com.tongji.wordtrail.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tongji.wordtrail.cache.CacheCodec;
+import com.tongji.wordtrail.cache.TwoTierCache;
+import com.tongji.wordtrail.cache.TwoTierCacheManager;
+import com.tongji.wordtrail.dto.CursorPage;
 import com.tongji.wordtrail.model.SystemWordbook;
+import com.tongji.wordtrail.model.Words;
 import com.tongji.wordtrail.repository.SystemWordbookRepository;
+import com.tongji.wordtrail.util.KeysetPager;
 import lombok.extern.slf4j.Slf4j;
 import org.bson.Document;
 import org.bson.types.ObjectId;
@@ -9,6 +16,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.FindAndModifyOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
@@ -27,12 +35,24 @@ public class SystemWordbookService {
     private final MongoTemplate mongoTemplate;
     private final WordService wordService;
     private final SystemWordbookRepository systemWordbookRepository;
+    private final WordbookIndexService wordbookIndexService;
+    private final CollectionCountService collectionCountService;
+    // getSystemWordbook 的结果，按词书ID缓存
+    private final TwoTierCache<Map<String, Object>> wordbookCache;
+
+    private static final int WORDBOOK_CACHE_SIZE = 1000;
 
     @Autowired
-    public SystemWordbookService(MongoTemplate mongoTemplate, WordService wordService, SystemWordbookRepository systemWordbookRepository) {
+    public SystemWordbookService(MongoTemplate mongoTemplate, WordService wordService, SystemWordbookRepository systemWordbookRepository,
+                                 WordbookIndexService wordbookIndexService, CollectionCountService collectionCountService,
+                                 TwoTierCacheManager cacheManager, ObjectMapper objectMapper) {
         this.mongoTemplate = mongoTemplate;
         this.wordService = wordService;
         this.systemWordbookRepository = systemWordbookRepository;
+        this.wordbookIndexService = wordbookIndexService;
+        this.collectionCountService = collectionCountService;
+        this.wordbookCache = cacheManager.create("system-wordbooks", WORDBOOK_CACHE_SIZE, CacheCodec.json(objectMapper,
+                objectMapper.getTypeFactory().constructMapType(HashMap.class, String.class, Object.class)));
     }
 
     /**
@@ -41,36 +61,50 @@ public class SystemWordbookService {
     public Optional<Map<String, Object>> getSystemWordbook(String id) {
         try {
             ObjectId objectId = new ObjectId(id);
-            return Optional.ofNullable(mongoTemplate.findById(objectId, Document.class, "system_wordbooks"))
-                    .filter(Objects::nonNull) // 过滤掉 null 的 document
-                    .map(document -> {
-                        Map<String, Object> result = new HashMap<>();
-
-                        result.put("id", document.getObjectId("_id").toString());
-                        result.put("language", document.getString("language"));
-                        result.put("bookName", document.getString("bookName"));
-                        result.put("description", document.getString("description"));
-                        result.put("createUser", document.getString("createUser"));
-
-                        List<ObjectId> words = (List<ObjectId>) document.get("words");
-                        if (words != null) {
-                            List<String> wordIds = words.stream()
-                                    .map(ObjectId::toString)
-                                    .collect(Collectors.toList());
-                            result.put("words", wordIds);
-                        } else {
-                            result.put("words", Collections.emptyList());
-                        }
-
-                        return result;
-                    });
-
+            Map<String, Object> cached = wordbookCache.get(objectId.toHexString(),
+                    key -> loadSystemWordbook(objectId).orElse(null));
+            // 缓存中的 Map 是共享的，返回副本
+            return Optional.ofNullable(cached).map(HashMap::new);
         } catch (IllegalArgumentException e) {
             log.error("Invalid ObjectId format: {}", id, e);
             return Optional.empty();
         }
     }
 
+    /**
+     * 系统词书的内容（名称、单词等）发生变化后使缓存失效
+     */
+    public void evictWordbookCache(String id) {
+        if (id != null && ObjectId.isValid(id)) {
+            wordbookCache.invalidate(new ObjectId(id).toHexString());
+        }
+    }
+
+    private Optional<Map<String, Object>> loadSystemWordbook(ObjectId objectId) {
+        return Optional.ofNullable(mongoTemplate.findById(objectId, Document.class, "system_wordbooks"))
+                .map(document -> {
+                    Map<String, Object> result = new HashMap<>();
+
+                    result.put("id", document.getObjectId("_id").toString());
+                    result.put("language", document.getString("language"));
+                    result.put("bookName", document.getString("bookName"));
+                    result.put("description", document.getString("description"));
+                    result.put("createUser", document.getString("createUser"));
+
+                    List<ObjectId> words = (List<ObjectId>) document.get("words");
+                    if (words != null) {
+                        List<String> wordIds = words.stream()
+                                .map(ObjectId::toString)
+                                .collect(Collectors.toList());
+                        result.put("words", wordIds);
+                    } else {
+                        result.put("words", Collections.emptyList());
+                    }
+
+                    return result;
+                });
+    }
+
     public Page<Map<String, Object>> getSystemWordbooks(
             int page,
             int size,
@@ -92,33 +126,66 @@ public class SystemWordbookService {
                     ));
         }
 
-        long total = mongoTemplate.count(query, "system_wordbooks");
+        long total = collectionCountService.count(query, "system_wordbooks");
         List<Map<String, Object>> wordbooks = mongoTemplate.find(query, Document.class, "system_wordbooks")
                 .stream()
-                .map(document -> {
-                    Map<String, Object> map = new HashMap<>();
+                .map(this::toWordbookSummary)
+                .collect(Collectors.toList());
 
-                    map.put("id", document.getObjectId("_id").toString());
-                    map.put("language", document.getString("language"));
-                    map.put("bookName", document.getString("bookName"));
-                    map.put("description", document.getString("description"));
-                    map.put("createUser", document.getString("createUser"));
+        return new PageImpl<>(wordbooks, PageRequest.of(page, size), total);
+    }
 
-                    // 处理 words 数组，保留完整信息
-                    List<ObjectId> words = (List<ObjectId>) document.get("words");
-                    map.put("words", words != null
-                            ? words.stream().map(wordId -> {
-                        Map<String, Object> wordMap = new HashMap<>();
-                        wordMap.put("id", wordId.toString());
-                        return wordMap;
-                    }).collect(Collectors.toList())
-                            : Collections.emptyList());
+    /**
+     * 游标分页获取系统词书（按 _id 升序）
+     * @param cursor 上一页返回的 nextCursor，第一页为空
+     * @param includeTotal 是否返回总数，没有过滤条件时使用集合的估算总数
+     */
+    public CursorPage<Map<String, Object>> getSystemWordbooksByCursor(
+            String cursor,
+            int size,
+            Map<String, String> filters,
+            boolean includeTotal) {
+        Query query = new Query();
+        if (filters != null) {
+            filters.entrySet().stream()
+                    .filter(entry -> !entry.getKey().equals("cursor") && !entry.getKey().equals("size")
+                            && !entry.getKey().equals("includeTotal"))
+                    .filter(entry -> StringUtils.hasText(entry.getValue()))
+                    .forEach(entry -> query.addCriteria(
+                            Criteria.where(entry.getKey()).is(entry.getValue())
+                    ));
+        }
 
-                    return map;
-                })
-                .collect(Collectors.toList());
+        Long total = includeTotal ? collectionCountService.count(query, "system_wordbooks") : null;
 
-        return new PageImpl<>(wordbooks, PageRequest.of(page, size), total);
+        KeysetPager.apply(query, cursor, size, Sort.Direction.ASC);
+        List<Document> documents = mongoTemplate.find(query, Document.class, "system_wordbooks");
+        CursorPage<Map<String, Object>> page = KeysetPager.toPage(documents, size,
+                document -> document.getObjectId("_id"), this::toWordbookSummary);
+        page.setTotal(total);
+        return page;
+    }
+
+    private Map<String, Object> toWordbookSummary(Document document) {
+        Map<String, Object> map = new HashMap<>();
+
+        map.put("id", document.getObjectId("_id").toString());
+        map.put("language", document.getString("language"));
+        map.put("bookName", document.getString("bookName"));
+        map.put("description", document.getString("description"));
+        map.put("createUser", document.getString("createUser"));
+
+        // 处理 words 数组，保留完整信息
+        List<ObjectId> words = (List<ObjectId>) document.get("words");
+        map.put("words", words != null
+                ? words.stream().map(wordId -> {
+            Map<String, Object> wordMap = new HashMap<>();
+            wordMap.put("id", wordId.toString());
+            return wordMap;
+        }).collect(Collectors.toList())
+                : Collections.emptyList());
+
+        return map;
     }
 
     /**
@@ -127,7 +194,9 @@ public class SystemWordbookService {
     public Map<String, Object> createSystemWordbook(Map<String, Object> wordbookData) {
         wordbookData.put("createUser", "system");
         Document doc = new Document(wordbookData);
-        return Optional.ofNullable(mongoTemplate.save(doc, "system_wordbooks"))
+        Document saved = mongoTemplate.save(doc, "system_wordbooks");
+        collectionCountService.invalidate("system_wordbooks");
+        return Optional.ofNullable(saved)
                 .map(document -> document.entrySet().stream()
                         .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)))
                 .orElseThrow(() -> new RuntimeException("Failed to create system wordbook"));
@@ -144,8 +213,13 @@ public class SystemWordbookService {
         // 创建 FindAndModifyOptions 并设置 returnNew 为 true
         FindAndModifyOptions options = FindAndModifyOptions.options().returnNew(true);
 
-        return Optional.ofNullable(
-                        mongoTemplate.findAndModify(query, update, options, Document.class, "system_wordbooks"))
+        Document updated = mongoTemplate.findAndModify(query, update, options, Document.class, "system_wordbooks");
+        if (updateData.containsKey("words")) {
+            wordbookIndexService.invalidate(id);
+        }
+        evictWordbookCache(id);
+        collectionCountService.invalidate("system_wordbooks");
+        return Optional.ofNullable(updated)
                 .map(document -> document.entrySet().stream()
                         .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)));
     }
@@ -155,7 +229,11 @@ public class SystemWordbookService {
      */
     public boolean deleteSystemWordbook(String id) {
         Query query = new Query(Criteria.where("_id").is(id));
-        return mongoTemplate.remove(query, "system_wordbooks").getDeletedCount() > 0;
+        boolean deleted = mongoTemplate.remove(query, "system_wordbooks").getDeletedCount() > 0;
+        wordbookIndexService.invalidate(id);
+        evictWordbookCache(id);
+        collectionCountService.invalidate("system_wordbooks");
+        return deleted;
     }
 
     /**
@@ -171,12 +249,12 @@ public class SystemWordbookService {
         }
 
         // 查询单词是否存在
-        List<Map<String, Object>> words = wordService.getWordsByIds(wordIds);
+        List<Words> words = wordService.getWordsByIds(wordIds);
         log.info("Found {} words out of {} requested", words.size(), wordIds.size());
 
         if (words.size() != wordIds.size()) {
             List<String> foundWordIds = words.stream()
-                    .map(word -> word.get("_id").toString())
+                    .map(word -> word.getId().toHexString())
                     .collect(Collectors.toList());
             List<String> missingWordIds = wordIds.stream()
                     .filter(id -> !foundWordIds.contains(id))
@@ -199,8 +277,10 @@ public class SystemWordbookService {
         FindAndModifyOptions options = FindAndModifyOptions.options().returnNew(true);
 
         log.info("Executing update operation");
-        return Optional.ofNullable(
-                        mongoTemplate.findAndModify(query, update, options, Document.class, "system_wordbooks"))
+        Document updated = mongoTemplate.findAndModify(query, update, options, Document.class, "system_wordbooks");
+        wordbookIndexService.invalidate(wordbookId);
+        evictWordbookCache(wordbookId);
+        return Optional.ofNullable(updated)
                 .map(document -> {
                     Map<String, Object> result = document.entrySet().stream()
                             .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
@@ -221,8 +301,10 @@ public class SystemWordbookService {
         // 创建 FindAndModifyOptions 并设置 returnNew 为 true
         FindAndModifyOptions options = new FindAndModifyOptions().returnNew(true);
 
-        return Optional.ofNullable(
-                        mongoTemplate.findAndModify(query, update, options, Document.class, "system_wordbooks"))
+        Document updated = mongoTemplate.findAndModify(query, update, options, Document.class, "system_wordbooks");
+        wordbookIndexService.invalidate(bookObjectId);
+        evictWordbookCache(wordbookId);
+        return Optional.ofNullable(updated)
                 .map(document -> document.entrySet().stream()
                         .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)));
     }
@@ -230,7 +312,7 @@ public class SystemWordbookService {
     /**
      * 获取词书中的所有单词
      */
-    public List<Map<String, Object>> getWordbookWords(String wordbookId) {
+    public List<Words> getWordbookWords(String wordbookId) {
         log.info("Fetching words for wordbook ID: {}", wordbookId);
 
         Optional<Map<String, Object>> wordbook = getSystemWordbook(wordbookId);
@@ -7,7 +7,6 @@ import com.tongji.wordtrail.model.UserFriend;
 import com.tongji.wordtrail.repository.TeamChallengeClockInRepository;
 import com.tongji.wordtrail.repository.TeamChallengeRepository;
 import com.tongji.wordtrail.repository.UserFriendRepository;
-import com.tongji.wordtrail.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -23,7 +22,7 @@ public class TeamChallengeService {
     private final TeamChallengeRepository challengeRepository;
     private final TeamChallengeClockInRepository clockInRepository;
     private final UserFriendRepository friendRepository;
-    private final UserRepository userRepository;
+    private final UserCacheService userCacheService;
 
     @Autowired
     private LearningRecordService learningRecordService;
@@ -37,11 +36,11 @@ public class TeamChallengeService {
             TeamChallengeRepository challengeRepository,
             TeamChallengeClockInRepository clockInRepository,
             UserFriendRepository friendRepository,
-            UserRepository userRepository) {
+            UserCacheService userCacheService) {
         this.challengeRepository = challengeRepository;
         this.clockInRepository = clockInRepository;
         this.friendRepository = friendRepository;
-        this.userRepository = userRepository;
+        this.userCacheService = userCacheService;
     }
     /**
      * 获取用户当前活跃的挑战数量
@@ -60,9 +59,9 @@ public class TeamChallengeService {
                 .orElseThrow(() -> new IllegalArgumentException("只能与好友创建组队挑战"));
 
         // 验证用户存在
-        userRepository.findById(creatorId)
+        userCacheService.findById(creatorId)
                 .orElseThrow(() -> new IllegalArgumentException("创建者用户不存在"));
-        userRepository.findById(partnerId)
+        userCacheService.findById(partnerId)
                 .orElseThrow(() -> new IllegalArgumentException("伙伴用户不存在"));
 
         // 检查创建者的活跃挑战数量
@@ -150,7 +149,8 @@ public class TeamChallengeService {
     public List<Map<String, Object>> getUserChallenges(String userId) {
         List<TeamChallenge> challenges = challengeRepository.findByUserIdInvolved(userId);
 
-        return challenges.stream().map(challenge -> {
+        UserProfileLoader profiles = userCacheService.newLoader();
+        List<Map<String, Object>> result = challenges.stream().map(challenge -> {
             Map<String, Object> challengeInfo = new HashMap<>();
             challengeInfo.put("challengeId", challenge.getId());
             challengeInfo.put("name", challenge.getName());
@@ -169,7 +169,7 @@ public class TeamChallengeService {
             String partnerId = isCreator ? challenge.getPartnerId() : challenge.getCreatorId();
             challengeInfo.put("partnerId", partnerId);
 
-            userRepository.findById(partnerId).ifPresent(partner -> {
+            profiles.load(partnerId, partner -> {
                 challengeInfo.put("partnerUsername", partner.getUsername());
                 challengeInfo.put("partnerAvatar", partner.getAvatarUrl());
             });
@@ -200,6 +200,9 @@ public class TeamChallengeService {
 
             return challengeInfo;
         }).collect(Collectors.toList());
+
+        profiles.dispatch();
+        return result;
     }
 
     /**
@@ -232,7 +235,7 @@ public class TeamChallengeService {
         String partnerId = isCreator ? challenge.getPartnerId() : challenge.getCreatorId();
         challengeInfo.put("partnerId", partnerId);
 
-        userRepository.findById(partnerId).ifPresent(partner -> {
+        userCacheService.findById(partnerId).ifPresent(partner -> {
             challengeInfo.put("partnerUsername", partner.getUsername());
             challengeInfo.put("partnerAvatar", partner.getAvatarUrl());
         });
@@ -391,7 +394,8 @@ public class TeamChallengeService {
     public List<Map<String, Object>> getActiveUserChallenges(String userId) {
         List<TeamChallenge> challenges = challengeRepository.findActiveByUserIdInvolved(userId);
 
-        return challenges.stream().map(challenge -> {
+        UserProfileLoader profiles = userCacheService.newLoader();
+        List<Map<String, Object>> result = challenges.stream().map(challenge -> {
             Map<String, Object> challengeInfo = new HashMap<>();
             challengeInfo.put("challengeId", challenge.getId());
             challengeInfo.put("name", challenge.getName());
@@ -404,7 +408,7 @@ public class TeamChallengeService {
             // 添加伙伴信息
             String partnerId = isCreator ? challenge.getPartnerId() : challenge.getCreatorId();
 
-            userRepository.findById(partnerId).ifPresent(partner -> {
+            profiles.load(partnerId, partner -> {
                 challengeInfo.put("partnerUsername", partner.getUsername());
                 challengeInfo.put("partnerAvatar", partner.getAvatarUrl());
             });
@@ -418,6 +422,9 @@ public class TeamChallengeService {
 
             return challengeInfo;
         }).collect(Collectors.toList());
+
+        profiles.dispatch();
+        return result;
     }
 
     /**
@@ -462,7 +469,7 @@ public class TeamChallengeService {
         String partnerId = challenge.getCreatorId().equals(userId) ?
                 challenge.getPartnerId() : challenge.getCreatorId();
 
-        userRepository.findById(partnerId).ifPresent(partner -> {
+        userCacheService.findById(partnerId).ifPresent(partner -> {
             stats.put("partnerUsername", partner.getUsername());
         });
 
@@ -642,7 +649,8 @@ public class TeamChallengeService {
         // 查找用户创建的且状态为pending的挑战
         List<TeamChallenge> sentRequests = challengeRepository.findByCreatorIdAndStatus(userId, "pending");
 
-        return sentRequests.stream().map(challenge -> {
+        UserProfileLoader profiles = userCacheService.newLoader();
+        List<Map<String, Object>> result = sentRequests.stream().map(challenge -> {
             Map<String, Object> requestInfo = new HashMap<>();
             requestInfo.put("challengeId", challenge.getId());
             requestInfo.put("name", challenge.getName());
@@ -657,13 +665,16 @@ public class TeamChallengeService {
             String partnerId = challenge.getPartnerId();
             requestInfo.put("partnerId", partnerId);
 
-            userRepository.findById(partnerId).ifPresent(partner -> {
+            profiles.load(partnerId, partner -> {
                 requestInfo.put("partnerUsername", partner.getUsername());
                 requestInfo.put("partnerAvatar", partner.getAvatarUrl());
             });
 
             return requestInfo;
         }).collect(Collectors.toList());
+
+        profiles.dispatch();
+        return result;
     }
 
     /**
@@ -673,7 +684,8 @@ public class TeamChallengeService {
         // 查找用户作为伙伴且状态为pending的挑战
         List<TeamChallenge> receivedRequests = challengeRepository.findByPartnerIdAndStatus(userId, "pending");
 
-        return receivedRequests.stream().map(challenge -> {
+        UserProfileLoader profiles = userCacheService.newLoader();
+        List<Map<String, Object>> result = receivedRequests.stream().map(challenge -> {
             Map<String, Object> requestInfo = new HashMap<>();
             requestInfo.put("challengeId", challenge.getId());
             requestInfo.put("name", challenge.getName());
@@ -688,13 +700,16 @@ public class TeamChallengeService {
             String creatorId = challenge.getCreatorId();
             requestInfo.put("creatorId", creatorId);
 
-            userRepository.findById(creatorId).ifPresent(creator -> {
+            profiles.load(creatorId, creator -> {
                 requestInfo.put("creatorUsername", creator.getUsername());
                 requestInfo.put("creatorAvatar", creator.getAvatarUrl());
             });
 
             return requestInfo;
         }).collect(Collectors.toList());
+
+        profiles.dispatch();
+        return result;
     }
 
     /**
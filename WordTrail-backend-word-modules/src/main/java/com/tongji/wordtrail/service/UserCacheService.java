@@ -0,0 +1,100 @@
+package com.tongji.wordtrail.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tongji.wordtrail.cache.CacheCodec;
+import com.tongji.wordtrail.cache.TwoTierCache;
+import com.tongji.wordtrail.cache.TwoTierCacheManager;
+import com.tongji.wordtrail.model.User;
+import com.tongji.wordtrail.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * 用户资料缓存：展示用户名、头像等资料时按用户ID读取，使用两级缓存，未命中时才查询 MySQL
+ * 缓存中的 User 不含密码且是共享的，只能用于读取，不能修改后保存
+ * 用户资料变更后调用 invalidate 失效
+ */
+@Service
+@Slf4j
+public class UserCacheService {
+
+    private final UserRepository userRepository;
+    private final TwoTierCache<User> cache;
+
+    @Autowired
+    public UserCacheService(UserRepository userRepository, TwoTierCacheManager cacheManager, ObjectMapper objectMapper,
+                            @Value("${wordtrail.user-cache.max-size:10000}") int maxSize) {
+        this.userRepository = userRepository;
+        this.cache = cacheManager.create("users", maxSize, CacheCodec.json(objectMapper, User.class));
+    }
+
+    /**
+     * 按ID读取用户
+     */
+    public Optional<User> findById(String userId) {
+        if (userId == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(cache.get(userId,
+                key -> userRepository.findById(key).map(UserCacheService::withoutPassword).orElse(null)));
+    }
+
+    /**
+     * 批量读取用户，缓存中没有的用户用一次 IN 查询读取
+     * @return 用户ID到用户的映射，不存在的用户不包含在结果中
+     */
+    public Map<String, User> findAllById(Collection<String> userIds) {
+        List<String> keys = new ArrayList<>(userIds.size());
+        for (String userId : userIds) {
+            if (userId != null) {
+                keys.add(userId);
+            }
+        }
+        if (keys.isEmpty()) {
+            return new HashMap<>();
+        }
+        return cache.getAll(keys, missing -> {
+            Map<String, User> loaded = new HashMap<>();
+            for (User user : userRepository.findAllById(missing)) {
+                loaded.put(user.getUserId(), withoutPassword(user));
+            }
+            return loaded;
+        });
+    }
+
+    /**
+     * 创建批量加载器，用于构建列表时合并每一行的用户查询
+     */
+    public UserProfileLoader newLoader() {
+        return new UserProfileLoader(this);
+    }
+
+    /**
+     * 用户资料变更后使缓存失效
+     */
+    public void invalidate(String userId) {
+        cache.invalidate(userId);
+    }
+
+    public Map<String, Object> stats() {
+        return cache.stats();
+    }
+
+    // 复制一份不含密码的用户，不修改 JPA 管理的实体
+    private static User withoutPassword(User user) {
+        User copy = new User();
+        copy.setUserId(user.getUserId());
+        copy.setUsername(user.getUsername());
+        copy.setEmail(user.getEmail());
+        copy.setPhone(user.getPhone());
+        copy.setAvatarUrl(user.getAvatarUrl());
+        copy.setStatus(user.getStatus());
+        copy.setCreateTime(user.getCreateTime());
+        copy.setUpdateTime(user.getUpdateTime());
+        return copy;
+    }
+}
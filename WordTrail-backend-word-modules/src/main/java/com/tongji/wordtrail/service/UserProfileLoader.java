@@ -0,0 +1,48 @@
+package com.tongji.wordtrail.service;
+
+import com.tongji.wordtrail.model.User;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * 批量用户资料加载器（DataLoader 风格）：构建列表时先用 load 登记需要的用户和回调，
+ * 列表构建完后调用 dispatch，用一次批量查询读取所有用户并执行回调
+ * 每次构建列表时通过 UserCacheService.newLoader 创建，不是线程安全的，不要跨请求复用
+ */
+public class UserProfileLoader {
+
+    private final UserCacheService userCacheService;
+    private final Map<String, List<Consumer<User>>> pending = new LinkedHashMap<>();
+
+    UserProfileLoader(UserCacheService userCacheService) {
+        this.userCacheService = userCacheService;
+    }
+
+    /**
+     * 登记需要读取的用户，dispatch 时用户存在才执行回调（与 Optional.ifPresent 相同）
+     */
+    public void load(String userId, Consumer<User> callback) {
+        if (userId == null) {
+            return;
+        }
+        pending.computeIfAbsent(userId, key -> new ArrayList<>()).add(callback);
+    }
+
+    /**
+     * 批量读取所有登记的用户并执行回调
+     */
+    public void dispatch() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<String, User> users = userCacheService.findAllById(pending.keySet());
+        for (Map.Entry<String, List<Consumer<User>>> entry : pending.entrySet()) {
+            User user = users.get(entry.getKey());
+            if (user != null) {
+                entry.getValue().forEach(callback -> callback.accept(user));
+            }
+        }
+        pending.clear();
+    }
+}
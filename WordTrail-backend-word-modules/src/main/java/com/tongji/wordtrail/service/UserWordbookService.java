@@ -1,6 +1,9 @@
 package com.tongji.wordtrail.service;
 
+import com.tongji.wordtrail.dto.CursorPage;
 import com.tongji.wordtrail.model.UserWordbook;
+import com.tongji.wordtrail.model.Words;
+import com.tongji.wordtrail.util.KeysetPager;
 import lombok.extern.slf4j.Slf4j;
 import org.bson.Document;
 import org.bson.types.ObjectId;
@@ -26,11 +29,16 @@ public class UserWordbookService {
 
     private final MongoTemplate mongoTemplate;
     private final WordService wordService;
+    private final WordbookIndexService wordbookIndexService;
+    private final CollectionCountService collectionCountService;
 
     @Autowired
-    public UserWordbookService(MongoTemplate mongoTemplate, WordService wordService) {
+    public UserWordbookService(MongoTemplate mongoTemplate, WordService wordService, WordbookIndexService wordbookIndexService,
+                               CollectionCountService collectionCountService) {
         this.mongoTemplate = mongoTemplate;
         this.wordService = wordService;
+        this.wordbookIndexService = wordbookIndexService;
+        this.collectionCountService = collectionCountService;
     }
 
     /**
@@ -101,7 +109,7 @@ public class UserWordbookService {
                 ));
 
         // 4. 计算总记录数
-        long total = mongoTemplate.count(query, "user_wordbooks");
+        long total = collectionCountService.count(query, "user_wordbooks");
 
         // 5. 添加明确的排序条件
         query.with(Sort.by(Sort.Direction.DESC, "createTime"));
@@ -116,6 +124,28 @@ public class UserWordbookService {
         return new PageImpl<>(wordbooks, PageRequest.of(page, size), total);
     }
 
+    /**
+     * 游标分页获取用户的词书列表（从新到旧）
+     * @param cursor 上一页返回的 nextCursor，第一页为空
+     * @param includeTotal 是否返回符合条件的总数
+     */
+    public CursorPage<Map<String, Object>> getUserWordbooksByCursor(String userId, String cursor, int size,
+                                                                    Map<String, String> filters, boolean includeTotal) {
+        Map<String, String> cleanFilters = filters != null ? new HashMap<>(filters) : new HashMap<>();
+        cleanFilters.remove("cursor");
+        cleanFilters.remove("size");
+        cleanFilters.remove("includeTotal");
+
+        Query query = new Query(Criteria.where("createUser").is(userId));
+        cleanFilters.entrySet().stream()
+                .filter(entry -> StringUtils.hasText(entry.getValue()))
+                .forEach(entry -> query.addCriteria(
+                        Criteria.where(entry.getKey()).is(entry.getValue())
+                ));
+
+        return findWordbooksByCursor(query, cursor, size, includeTotal);
+    }
+
     /**
      * 创建用户词书
      */
@@ -154,6 +184,7 @@ public class UserWordbookService {
         if (savedDocument == null) {
             throw new RuntimeException("Failed to create user wordbook");
         }
+        collectionCountService.invalidate("user_wordbooks");
 
         return convertDocumentToMap(savedDocument);
     }
@@ -186,6 +217,10 @@ public class UserWordbookService {
             FindAndModifyOptions options = FindAndModifyOptions.options().returnNew(true);
 
             Document updatedDocument = mongoTemplate.findAndModify(query, update, options, Document.class, "user_wordbooks");
+            if (updateData.containsKey("words")) {
+                wordbookIndexService.invalidate(objectId);
+            }
+            collectionCountService.invalidate("user_wordbooks");
             return Optional.ofNullable(updatedDocument)
                     .map(this::convertDocumentToMap);
         } catch (IllegalArgumentException e) {
@@ -201,7 +236,10 @@ public class UserWordbookService {
         try {
             ObjectId objectId = new ObjectId(id);
             Query query = new Query(Criteria.where("_id").is(objectId).and("createUser").is(userId));
-            return mongoTemplate.remove(query, "user_wordbooks").getDeletedCount() > 0;
+            boolean deleted = mongoTemplate.remove(query, "user_wordbooks").getDeletedCount() > 0;
+            wordbookIndexService.invalidate(objectId);
+            collectionCountService.invalidate("user_wordbooks");
+            return deleted;
         } catch (IllegalArgumentException e) {
             log.error("Invalid ObjectId format: {}", id, e);
             return false;
@@ -225,6 +263,8 @@ public class UserWordbookService {
             FindAndModifyOptions options = FindAndModifyOptions.options().returnNew(true);
 
             Document updatedDocument = mongoTemplate.findAndModify(query, update, options, Document.class, "user_wordbooks");
+            // 公开词书的总数按审核状态过滤
+            collectionCountService.invalidate("user_wordbooks");
             return Optional.ofNullable(updatedDocument)
                     .map(this::convertDocumentToMap);
         } catch (IllegalArgumentException e) {
@@ -241,20 +281,44 @@ public class UserWordbookService {
                 .and("status").is("approved"))
                 .with(PageRequest.of(page, size));
 
-        long total = mongoTemplate.count(query, "user_wordbooks");
+        long total = collectionCountService.count(query, "user_wordbooks");
         List<Document> documents = mongoTemplate.find(query, Document.class, "user_wordbooks");
         List<Map<String, Object>> wordbooks = convertDocumentsToMaps(documents);
 
         return new PageImpl<>(wordbooks, PageRequest.of(page, size), total);
     }
 
+    /**
+     * 游标分页获取已审核的公开词书（从新到旧）
+     */
+    public CursorPage<Map<String, Object>> getPublicWordbooksByCursor(String cursor, int size, boolean includeTotal) {
+        Query query = new Query(Criteria.where("isPublic").is(true)
+                .and("status").is("approved"));
+        return findWordbooksByCursor(query, cursor, size, includeTotal);
+    }
+
+    /**
+     * 按 _id 倒序做游标分页，total 按过滤条件单独统计（不带游标条件）
+     */
+    private CursorPage<Map<String, Object>> findWordbooksByCursor(Query filterQuery, String cursor, int size,
+                                                                  boolean includeTotal) {
+        Long total = includeTotal ? collectionCountService.count(filterQuery, "user_wordbooks") : null;
+
+        Query query = KeysetPager.apply(filterQuery, cursor, size, Sort.Direction.DESC);
+        List<Document> documents = mongoTemplate.find(query, Document.class, "user_wordbooks");
+        CursorPage<Map<String, Object>> page = KeysetPager.toPage(documents, size,
+                document -> document.getObjectId("_id"), this::convertDocumentToMap);
+        page.setTotal(total);
+        return page;
+    }
+
     /**
      * 添加单词到词书
      */
     public Optional<Map<String, Object>> addWordsToWordbook(String id, String userId, List<String> wordIds) {
         try {
             // 验证所有单词是否存在 - 使用正确的方法
-            List<Map<String, Object>> words = wordService.getWordsByIds(wordIds);
+            List<Words> words = wordService.getWordsByIds(wordIds);
 
             if (words.size() != wordIds.size()) {
                 log.error("Some words do not exist. Requested IDs: {}, Found words: {}", wordIds, words.size());
@@ -269,6 +333,7 @@ public class UserWordbookService {
             FindAndModifyOptions options = FindAndModifyOptions.options().returnNew(true);
 
             Document updatedDocument = mongoTemplate.findAndModify(query, update, options, Document.class, "user_wordbooks");
+            wordbookIndexService.invalidate(objectId);
             return Optional.ofNullable(updatedDocument)
                     .map(this::convertDocumentToMap);
         } catch (IllegalArgumentException e) {
@@ -290,6 +355,7 @@ public class UserWordbookService {
             FindAndModifyOptions options = FindAndModifyOptions.options().returnNew(true);
 
             Document updatedDocument = mongoTemplate.findAndModify(query, update, options, Document.class, "user_wordbooks");
+            wordbookIndexService.invalidate(objectId);
             return Optional.ofNullable(updatedDocument)
                     .map(this::convertDocumentToMap);
         } catch (IllegalArgumentException e) {
@@ -301,7 +367,7 @@ public class UserWordbookService {
     /**
      * 获取词书中的所有单词
      */
-    public List<Map<String, Object>> getWordbookWords(String id, String userId) {
+    public List<Words> getWordbookWords(String id, String userId) {
         try {
             ObjectId objectId = new ObjectId(id);
             Query query = new Query(Criteria.where("_id").is(objectId));
@@ -323,9 +389,7 @@ public class UserWordbookService {
                 return Collections.emptyList();
             }
 
-            Map<String, String> queryParams = new HashMap<>();
-            queryParams.put("id", String.join(",", wordIds));  // 使用 id 而不是 _id
-            return wordService.getWords(queryParams);
+            return wordService.getWordsByIds(wordIds);
         } catch (IllegalArgumentException e) {
             log.error("Invalid ObjectId format: {}", id, e);
             return Collections.emptyList();
@@ -343,6 +407,35 @@ public class UserWordbookService {
             int page,
             int size) {
 
+        Query query = buildSearchQuery(keyword, tags, onlyPublic, status);
+
+        // 添加分页
+        PageRequest pageRequest = PageRequest.of(page, size);
+        query.with(pageRequest);
+
+        // 执行查询
+        long total = collectionCountService.count(query, "user_wordbooks");
+        List<Document> documents = mongoTemplate.find(query, Document.class, "user_wordbooks");
+        List<Map<String, Object>> wordbooks = convertDocumentsToMaps(documents);
+
+        return new PageImpl<>(wordbooks, pageRequest, total);
+    }
+
+    /**
+     * 游标分页搜索词书（从新到旧）
+     */
+    public CursorPage<Map<String, Object>> searchWordbooksByCursor(
+            String keyword,
+            List<String> tags,
+            boolean onlyPublic,
+            String status,
+            String cursor,
+            int size,
+            boolean includeTotal) {
+        return findWordbooksByCursor(buildSearchQuery(keyword, tags, onlyPublic, status), cursor, size, includeTotal);
+    }
+
+    private Query buildSearchQuery(String keyword, List<String> tags, boolean onlyPublic, String status) {
         List<Criteria> criteriaList = new ArrayList<>();
 
         // 关键词搜索
@@ -375,17 +468,7 @@ public class UserWordbookService {
         if (!criteriaList.isEmpty()) {
             query.addCriteria(new Criteria().andOperator(criteriaList.toArray(new Criteria[0])));
         }
-
-        // 添加分页
-        PageRequest pageRequest = PageRequest.of(page, size);
-        query.with(pageRequest);
-
-        // 执行查询
-        long total = mongoTemplate.count(query, "user_wordbooks");
-        List<Document> documents = mongoTemplate.find(query, Document.class, "user_wordbooks");
-        List<Map<String, Object>> wordbooks = convertDocumentsToMaps(documents);
-
-        return new PageImpl<>(wordbooks, pageRequest, total);
+        return query;
     }
 
     /**
@@ -478,7 +561,7 @@ public class UserWordbookService {
         query.with(pageRequest);
 
         // 执行查询
-        long total = mongoTemplate.count(query, "user_wordbooks");
+        long total = collectionCountService.count(query, "user_wordbooks");
         List<Document> documents = mongoTemplate.find(query, Document.class, "user_wordbooks");
         List<Map<String, Object>> wordbooks = convertDocumentsToMaps(documents);
 
@@ -0,0 +1,102 @@
+package com.tongji.wordtrail.service;
+
+import com.tongji.wordtrail.model.Post;
+import com.tongji.wordtrail.model.Vote;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+
+/**
+ * 帖子投票服务
+ * 投票记录按 {postId, userId} 唯一，先原子地替换/删除用户的投票并取回旧值，
+ * 再根据新旧投票的差值用 $inc 更新帖子的 like / dislike / voteCount，
+ * 并发投票时不会丢失更新，重复投同一票不会重复计数
+ */
+@Service
+@Slf4j
+public class VoteService {
+
+    public static final String UPVOTE = "true";
+    public static final String DOWNVOTE = "false";
+
+    private final MongoTemplate mongoTemplate;
+    private final CommunityStatsService communityStatsService;
+
+    @Autowired
+    public VoteService(MongoTemplate mongoTemplate, CommunityStatsService communityStatsService) {
+        this.mongoTemplate = mongoTemplate;
+        this.communityStatsService = communityStatsService;
+    }
+
+    /**
+     * 投票
+     * @param upvote "true" 赞，"false" 踩，其他值（包括 null）取消投票
+     * @return 帖子投票后的 voteCount（赞数 - 踩数）
+     * @throws IllegalArgumentException 帖子不存在
+     */
+    public int vote(String postId, String userId, String upvote) {
+        String newVote = UPVOTE.equals(upvote) || DOWNVOTE.equals(upvote) ? upvote : null;
+        String oldVote = replaceVote(postId, userId, newVote);
+
+        int likeDelta = indicator(newVote, UPVOTE) - indicator(oldVote, UPVOTE);
+        int dislikeDelta = indicator(newVote, DOWNVOTE) - indicator(oldVote, DOWNVOTE);
+
+        Query postQuery = new Query(Criteria.where("_id").is(postId));
+        postQuery.fields().include("userId").include("voteCount");
+        Post post;
+        if (likeDelta == 0 && dislikeDelta == 0) {
+            post = mongoTemplate.findOne(postQuery, Post.class);
+        } else {
+            post = mongoTemplate.findAndModify(postQuery,
+                    new Update().inc("like", likeDelta).inc("dislike", dislikeDelta).inc("voteCount", likeDelta - dislikeDelta),
+                    FindAndModifyOptions.options().returnNew(true), Post.class);
+        }
+        if (post == null) {
+            mongoTemplate.remove(voteQuery(postId, userId), Vote.class);
+            throw new IllegalArgumentException("帖子不存在: " + postId);
+        }
+        communityStatsService.votesChanged(post.getUserId(), likeDelta, dislikeDelta);
+        return post.getVoteCount();
+    }
+
+    /**
+     * 原子地写入（或删除）用户对帖子的投票
+     * @return 之前的投票值，之前没有投票时返回 null
+     */
+    private String replaceVote(String postId, String userId, String newVote) {
+        Query query = voteQuery(postId, userId);
+        if (newVote == null) {
+            Vote removed = mongoTemplate.findAndRemove(query, Vote.class);
+            return removed != null ? removed.getUpvote() : null;
+        }
+        Update update = new Update().set("upvote", newVote).set("voteTime", LocalDateTime.now());
+        try {
+            return previousVote(mongoTemplate.findAndModify(query, update,
+                    FindAndModifyOptions.options().upsert(true).returnNew(false), Vote.class));
+        } catch (DuplicateKeyException e) {
+            // 同一用户并发首次投票时只有一个 upsert 能插入，另一个重试后变为更新
+            return previousVote(mongoTemplate.findAndModify(query, update,
+                    FindAndModifyOptions.options().returnNew(false), Vote.class));
+        }
+    }
+
+    private static Query voteQuery(String postId, String userId) {
+        return new Query(Criteria.where("postId").is(postId).and("userId").is(userId));
+    }
+
+    private static String previousVote(Vote vote) {
+        return vote != null ? vote.getUpvote() : null;
+    }
+
+    private static int indicator(String vote, String value) {
+        return value.equals(vote) ? 1 : 0;
+    }
+}
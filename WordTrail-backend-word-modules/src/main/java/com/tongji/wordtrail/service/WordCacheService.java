@@ -0,0 +1,114 @@
+package com.tongji.wordtrail.service;
+
+import com.tongji.wordtrail.cache.CacheCodec;
+import com.tongji.wordtrail.cache.TwoTierCache;
+import com.tongji.wordtrail.cache.TwoTierCacheManager;
+import com.tongji.wordtrail.model.Words;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * 单词缓存：按单词ID缓存 Words，读取时未命中才查询数据库
+ * 使用两级缓存（本实例 LRU + 多实例共享），超过容量后淘汰最久未使用的单词
+ * 单词保存、修改、删除时由 WordService / AdminWordbookService 调用 invalidate 失效
+ * 缓存中的 Words 对象是共享的，调用方不应修改返回的对象
+ */
+@Service
+@Slf4j
+public class WordCacheService {
+
+    private final TwoTierCache<Words> cache;
+
+    @Autowired
+    public WordCacheService(TwoTierCacheManager cacheManager, MongoConverter mongoConverter,
+                            @Value("${wordtrail.word-cache.max-size:10000}") int maxSize) {
+        this.cache = cacheManager.create("words", maxSize, wordsCodec(mongoConverter));
+    }
+
+    /**
+     * 远端缓存中按 Mongo 文档的扩展 JSON 保存，ObjectId 等类型可以原样还原
+     */
+    static CacheCodec<Words> wordsCodec(MongoConverter mongoConverter) {
+        return new CacheCodec<Words>() {
+            @Override
+            public String encode(Words value) {
+                Document document = new Document();
+                mongoConverter.write(value, document);
+                return document.toJson();
+            }
+
+            @Override
+            public Words decode(String encoded) {
+                return mongoConverter.read(Words.class, Document.parse(encoded));
+            }
+        };
+    }
+
+    /**
+     * 读取单个单词
+     * @param id 单词ID
+     * @param loader 未命中时从数据库读取单词，单词不存在时返回 null
+     * @return 单词，不存在时返回 null
+     */
+    public Words get(ObjectId id, Function<ObjectId, Words> loader) {
+        return cache.get(id.toHexString(), key -> loader.apply(id));
+    }
+
+    /**
+     * 批量读取单词，只为缓存中没有的ID调用 loader
+     * @param ids 单词ID（重复的ID只返回一次）
+     * @param loader 按ID批量读取单词
+     * @return 按 ids 顺序排列的单词，不存在的单词被跳过
+     */
+    public List<Words> getAll(Collection<ObjectId> ids, Function<Collection<ObjectId>, List<Words>> loader) {
+        List<String> keys = new ArrayList<>(ids.size());
+        for (ObjectId id : ids) {
+            keys.add(id.toHexString());
+        }
+
+        Map<String, Words> found = cache.getAll(keys, missing -> {
+            List<ObjectId> missingIds = new ArrayList<>(missing.size());
+            for (String key : missing) {
+                missingIds.add(new ObjectId(key));
+            }
+            Map<String, Words> loaded = new HashMap<>();
+            for (Words word : loader.apply(missingIds)) {
+                loaded.put(word.getId().toHexString(), word);
+            }
+            return loaded;
+        });
+        return new ArrayList<>(found.values());
+    }
+
+    /**
+     * 单词保存、修改或删除后使缓存失效
+     */
+    public void invalidate(ObjectId id) {
+        if (id != null) {
+            cache.invalidate(id.toHexString());
+        }
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * 缓存统计：命中、未命中、淘汰次数、当前大小与命中率
+     */
+    public Map<String, Object> stats() {
+        return cache.stats();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+}
@@ -0,0 +1,390 @@
+package com.tongji.wordtrail.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tongji.wordtrail.dto.WordImportReport;
+import com.tongji.wordtrail.model.Words;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * 批量导入单词：逐行读取 JSON Lines 或 CSV，校验后按批次无序 bulk insert，
+ * 按 (word, language) 去重，最后用一次 $addToSet/$each 把单词加入系统词书
+ */
+@Service
+@Slf4j
+public class WordImportService {
+
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+    public static final int MAX_BATCH_SIZE = 5000;
+    private static final int DUPLICATE_KEY = 11000;
+
+    // CSV 支持的列，列表字段用 | 分隔；phonetics、partOfSpeechList 等嵌套字段请使用 JSON Lines
+    private static final Set<String> CSV_COLUMNS = new HashSet<>(Arrays.asList(
+            "word", "language", "difficulty", "synonyms", "antonyms", "tags"
+    ));
+
+    private final MongoTemplate mongoTemplate;
+    private final ConfusionIndexService confusionIndexService;
+    private final CollectionCountService collectionCountService;
+    private final WordbookIndexService wordbookIndexService;
+    private final SystemWordbookService systemWordbookService;
+    // 按 Words 模型严格校验：出现模型中没有的字段时报错
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .enable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    @Autowired
+    public WordImportService(MongoTemplate mongoTemplate, ConfusionIndexService confusionIndexService,
+                             CollectionCountService collectionCountService, WordbookIndexService wordbookIndexService,
+                             SystemWordbookService systemWordbookService) {
+        this.mongoTemplate = mongoTemplate;
+        this.confusionIndexService = confusionIndexService;
+        this.collectionCountService = collectionCountService;
+        this.wordbookIndexService = wordbookIndexService;
+        this.systemWordbookService = systemWordbookService;
+    }
+
+    /**
+     * 导入单词
+     * @param input 上传的文件内容（UTF-8）
+     * @param format "jsonl" 或 "csv"
+     * @param wordbookId 目标系统词书ID，为空时只导入单词
+     * @param batchSize 每批写入的单词数量
+     * @return 导入结果
+     * @throws IllegalArgumentException 格式、批次大小或 CSV 表头不合法，或词书不存在
+     */
+    public WordImportReport importWords(InputStream input, String format, String wordbookId, int batchSize)
+            throws IOException {
+        if (batchSize <= 0 || batchSize > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Batch size must be between 1 and " + MAX_BATCH_SIZE);
+        }
+        boolean csv = "csv".equalsIgnoreCase(format);
+        if (!csv && !"jsonl".equalsIgnoreCase(format)) {
+            throw new IllegalArgumentException("Unsupported format: " + format);
+        }
+        ObjectId bookId = null;
+        if (StringUtils.hasText(wordbookId)) {
+            if (!ObjectId.isValid(wordbookId)
+                    || !mongoTemplate.exists(new Query(Criteria.where("_id").is(new ObjectId(wordbookId))), "system_wordbooks")) {
+                throw new IllegalArgumentException("Wordbook not found: " + wordbookId);
+            }
+            bookId = new ObjectId(wordbookId);
+        }
+
+        WordImportReport report = new WordImportReport();
+        Set<String> seenKeys = new HashSet<>();
+        Set<ObjectId> bookWordIds = new LinkedHashSet<>();
+        List<ImportRow> batch = new ArrayList<>(batchSize);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String[] header = null;
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                if (csv && header == null) {
+                    header = parseCsvHeader(line);
+                    continue;
+                }
+
+                report.setTotalLines(report.getTotalLines() + 1);
+                Words word;
+                try {
+                    word = csv ? parseCsvRow(header, line) : parseJsonLine(line);
+                    validate(word);
+                } catch (IllegalArgumentException e) {
+                    report.setInvalid(report.getInvalid() + 1);
+                    report.addError(lineNumber, e.getMessage());
+                    continue;
+                }
+
+                if (!seenKeys.add(dedupKey(word))) {
+                    report.setDuplicates(report.getDuplicates() + 1);
+                    continue;
+                }
+                batch.add(new ImportRow(lineNumber, word));
+                if (batch.size() >= batchSize) {
+                    writeBatch(batch, report, bookWordIds);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeBatch(batch, report, bookWordIds);
+        }
+
+        if (report.getInserted() > 0) {
+            collectionCountService.invalidate("words");
+        }
+        if (bookId != null && !bookWordIds.isEmpty()) {
+            mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(bookId)),
+                    new Update().addToSet("words").each(bookWordIds.toArray()), "system_wordbooks");
+            wordbookIndexService.invalidate(bookId);
+            systemWordbookService.evictWordbookCache(bookId.toHexString());
+            report.setAddedToWordbook(bookWordIds.size());
+        }
+
+        log.info("Word import finished: {} lines, {} inserted, {} duplicates, {} invalid, {} failed",
+                report.getTotalLines(), report.getInserted(), report.getDuplicates(),
+                report.getInvalid(), report.getFailed());
+        return report;
+    }
+
+    /**
+     * 写入一个批次：先查出数据库中已存在的 (word, language)，其余的一次无序 bulk insert
+     * 查询与插入之间被其他导入写入的单词会违反 word_language 唯一索引，同样按已存在处理
+     */
+    private void writeBatch(List<ImportRow> batch, WordImportReport report, Set<ObjectId> bookWordIds) {
+        WordImportReport.BatchResult result = new WordImportReport.BatchResult();
+        result.setBatch(report.getBatches().size() + 1);
+
+        // 1. 查询已存在的单词
+        List<Words> words = new ArrayList<>(batch.size());
+        batch.forEach(row -> words.add(row.word));
+        Map<String, ObjectId> existing = findExistingIds(words);
+
+        // 2. 其余单词预先分配 _id 后批量插入
+        List<ImportRow> toInsert = new ArrayList<>();
+        for (ImportRow row : batch) {
+            ObjectId existingId = existing.get(dedupKey(row.word));
+            if (existingId != null) {
+                result.setExisting(result.getExisting() + 1);
+                bookWordIds.add(existingId);
+            } else {
+                row.word.setId(new ObjectId());
+                toInsert.add(row);
+            }
+        }
+
+        Set<Integer> skippedIndexes = new HashSet<>();
+        List<Words> raced = new ArrayList<>();
+        if (!toInsert.isEmpty()) {
+            BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Words.class);
+            toInsert.forEach(row -> bulkOps.insert(row.word));
+            try {
+                bulkOps.execute();
+            } catch (BulkOperationException e) {
+                e.getErrors().forEach(error -> {
+                    ImportRow row = toInsert.get(error.getIndex());
+                    skippedIndexes.add(error.getIndex());
+                    if (error.getCode() == DUPLICATE_KEY) {
+                        raced.add(row.word);
+                    } else {
+                        result.setFailed(result.getFailed() + 1);
+                        report.addError(row.line, "Batch " + result.getBatch() + ": "
+                                + row.word.getWord() + " - " + error.getMessage());
+                    }
+                });
+            }
+        }
+
+        // 3. 违反唯一索引的单词查出已有的 _id，仍然加入词书
+        if (!raced.isEmpty()) {
+            Map<String, ObjectId> racedIds = findExistingIds(raced);
+            for (Words word : raced) {
+                ObjectId existingId = racedIds.get(dedupKey(word));
+                if (existingId != null) {
+                    bookWordIds.add(existingId);
+                }
+            }
+            result.setExisting(result.getExisting() + raced.size());
+        }
+
+        for (int i = 0; i < toInsert.size(); i++) {
+            if (skippedIndexes.contains(i)) {
+                continue;
+            }
+            Words inserted = toInsert.get(i).word;
+            bookWordIds.add(inserted.getId());
+            confusionIndexService.put(new Document("_id", inserted.getId())
+                    .append("word", inserted.getWord())
+                    .append("language", inserted.getLanguage())
+                    .append("difficulty", inserted.getDifficulty()));
+        }
+
+        result.setInserted(toInsert.size() - skippedIndexes.size());
+        report.getBatches().add(result);
+        report.setInserted(report.getInserted() + result.getInserted());
+        report.setDuplicates(report.getDuplicates() + result.getExisting());
+        report.setFailed(report.getFailed() + result.getFailed());
+        log.info("Word import batch {}: {} inserted, {} existing, {} failed",
+                result.getBatch(), result.getInserted(), result.getExisting(), result.getFailed());
+    }
+
+    /**
+     * @return 数据库中已存在的单词，按 (word, language) 索引到 _id
+     */
+    private Map<String, ObjectId> findExistingIds(List<Words> batch) {
+        Set<String> words = new HashSet<>();
+        batch.forEach(word -> words.add(word.getWord()));
+        Query existingQuery = new Query(Criteria.where("word").in(words));
+        existingQuery.fields().include("word", "language");
+        Map<String, ObjectId> existing = new HashMap<>();
+        for (Document document : mongoTemplate.find(existingQuery, Document.class, "words")) {
+            existing.putIfAbsent(dedupKey(document.getString("word"), document.getString("language")),
+                    document.getObjectId("_id"));
+        }
+        return existing;
+    }
+
+    private Words parseJsonLine(String line) {
+        try {
+            return objectMapper.readValue(line, Words.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private String[] parseCsvHeader(String line) {
+        List<String> columns = parseCsvLine(line);
+        for (String column : columns) {
+            if (!CSV_COLUMNS.contains(column.trim())) {
+                throw new IllegalArgumentException("Unsupported CSV column: " + column);
+            }
+        }
+        return columns.stream().map(String::trim).toArray(String[]::new);
+    }
+
+    private Words parseCsvRow(String[] header, String line) {
+        List<String> values = parseCsvLine(line);
+        if (values.size() != header.length) {
+            throw new IllegalArgumentException("Expected " + header.length + " columns but found " + values.size());
+        }
+
+        Words word = new Words();
+        for (int i = 0; i < header.length; i++) {
+            String value = values.get(i).trim();
+            switch (header[i]) {
+                case "word":
+                    word.setWord(value);
+                    break;
+                case "language":
+                    word.setLanguage(value);
+                    break;
+                case "difficulty":
+                    try {
+                        word.setDifficulty(value.isEmpty() ? 0 : Integer.parseInt(value));
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Invalid difficulty: " + value);
+                    }
+                    break;
+                case "synonyms":
+                    word.setSynonyms(splitList(value));
+                    break;
+                case "antonyms":
+                    word.setAntonyms(splitList(value));
+                    break;
+                case "tags":
+                    word.setTags(splitList(value));
+                    break;
+                default:
+                    break;
+            }
+        }
+        return word;
+    }
+
+    /**
+     * 解析一行 CSV，支持双引号包裹的字段和 "" 转义（不支持跨行字段）
+     */
+    private List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    private List<String> splitList(String value) {
+        if (value.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<String> items = new ArrayList<>();
+        for (String item : value.split("\\|")) {
+            if (!item.trim().isEmpty()) {
+                items.add(item.trim());
+            }
+        }
+        return items;
+    }
+
+    private void validate(Words word) {
+        if (word == null || !StringUtils.hasText(word.getWord())) {
+            throw new IllegalArgumentException("word is required");
+        }
+        if (!StringUtils.hasText(word.getLanguage())) {
+            throw new IllegalArgumentException("language is required");
+        }
+        if (word.getDifficulty() < 0) {
+            throw new IllegalArgumentException("difficulty cannot be negative");
+        }
+        if (word.getId() != null) {
+            throw new IllegalArgumentException("id must not be provided");
+        }
+        word.setWord(word.getWord().trim());
+        word.setLanguage(word.getLanguage().trim());
+    }
+
+    private static String dedupKey(Words word) {
+        return dedupKey(word.getWord(), word.getLanguage());
+    }
+
+    private static String dedupKey(String word, String language) {
+        return language + "|" + word;
+    }
+
+    // 批次中的单词及其在文件中的行号，批次写入失败时按行号报告
+    private static final class ImportRow {
+        private final int line;
+        private final Words word;
+
+        private ImportRow(int line, Words word) {
+            this.line = line;
+            this.word = word;
+        }
+    }
+}
@@ -1,14 +1,41 @@
 package com.tongji.wordtrail.service;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
+import com.tongji.wordtrail.dto.BatchLearningResponse;
+import com.tongji.wordtrail.dto.ReviewItemRequest;
+import com.tongji.wordtrail.dto.ReviewQueuePage;
 import com.tongji.wordtrail.model.*;
 import com.tongji.wordtrail.repository.LearningRecordRepository;
+import org.bson.Document;
 import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.BooleanOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.CloseableIterator;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -16,11 +43,17 @@ import java.util.stream.Collectors;
 public class WordLearningProgressService {
 
     private final MongoTemplate mongoTemplate;
+    private final WordbookIndexService wordbookIndexService;
+    // 批量开始学习 / 批量复习每次最多处理的条目数
+    public static final int MAX_BATCH_SIZE = 200;
     private static final int[] REVIEW_INTERVALS = {1, 2, 4, 7, 15, 30};
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+    private static final int MAX_REVIEW_QUEUE_PAGE_SIZE = 100;
 
     @Autowired
-    public WordLearningProgressService(MongoTemplate mongoTemplate) {
+    public WordLearningProgressService(MongoTemplate mongoTemplate, WordbookIndexService wordbookIndexService) {
         this.mongoTemplate = mongoTemplate;
+        this.wordbookIndexService = wordbookIndexService;
     }
 
     @Autowired
@@ -58,16 +91,44 @@ public class WordLearningProgressService {
         return progress;
     }
 
+    /**
+     * 记录复习结果
+     * 新的阶段、熟练度、下次复习时间和复习历史都在数据库端由一次 findAndModify 更新管道计算，
+     * 同一用户在多个设备上并发复习同一个单词时不会丢失复习记录
+     */
     public WordLearningProgress recordReviewResult(String userId, ObjectId wordId, boolean remembered) {
         Query query = new Query(Criteria.where("userId").is(userId)
                 .and("wordId").is(wordId));
 
-        WordLearningProgress progress = mongoTemplate.findOne(query, WordLearningProgress.class);
-        if (progress == null) {
+        Date now = new Date();
+        // 返回更新前的文档，用于判断旧数据和计算返回值
+        Document previous = mongoTemplate.findAndModify(query, buildReviewUpdate(remembered, now),
+                FindAndModifyOptions.options().returnNew(false), Document.class,
+                mongoTemplate.getCollectionName(WordLearningProgress.class));
+        if (previous == null) {
             return null;
         }
 
-        progress.addReviewHistory(remembered);
+        WordLearningProgress progress = mongoTemplate.getConverter().read(WordLearningProgress.class, previous);
+
+        // 旧数据没有汇总计数，管道中已按历史补齐计数，这里把被截断前的完整历史归档
+        List<WordLearningProgress.ReviewRecord> legacyHistory = Collections.emptyList();
+        if (!previous.containsKey("totalReviews") && progress.getReviewHistory() != null) {
+            legacyHistory = new ArrayList<>(progress.getReviewHistory());
+            progress.setTotalReviews(legacyHistory.size());
+            progress.setSuccessfulReviews((int) legacyHistory.stream()
+                    .filter(WordLearningProgress.ReviewRecord::isRemembered).count());
+        }
+
+        // 在更新前的文档上重放同样的计算，得到与数据库一致的返回值
+        WordLearningProgress.ReviewRecord record = applyReview(progress, remembered, now);
+
+        archiveReviewHistory(progress, legacyHistory, record);
+        return progress;
+    }
+
+    private WordLearningProgress.ReviewRecord applyReview(WordLearningProgress progress, boolean remembered, Date now) {
+        WordLearningProgress.ReviewRecord record = progress.addReviewHistory(remembered, now);
 
         if (remembered) {
             if (progress.getReviewStage() < REVIEW_INTERVALS.length - 1) {
@@ -84,14 +145,302 @@ public class WordLearningProgressService {
         Date nextReview = calculateNextReviewTime(progress.getLastReviewTime(),
                 REVIEW_INTERVALS[progress.getReviewStage()]);
         progress.setNextReviewTime(nextReview);
+        return record;
+    }
+
+    /**
+     * 复习结果的更新管道，与 applyReview 的计算规则保持一致：
+     * 1. 阶段 ±1（限制在 [0, REVIEW_INTERVALS.length - 1]），熟练度 ±0.1（限制在 [0, 1]）
+     * 2. reviewHistory 追加一条并只保留最近 MAX_REVIEW_HISTORY 条，汇总计数 +1
+     * 3. 按新阶段计算下次复习时间
+     */
+    private AggregationUpdate buildReviewUpdate(boolean remembered, Date now) {
+        List<AggregationOperation> pipeline = new ArrayList<>();
+        for (Document stage : buildReviewPipeline(remembered, now)) {
+            pipeline.add(context -> stage);
+        }
+        return AggregationUpdate.from(pipeline);
+    }
 
-        return mongoTemplate.save(progress);
+    private List<Document> buildReviewPipeline(boolean remembered, Date now) {
+        Object stage = ifNull("$reviewStage", 0);
+        Object proficiency = ifNull("$proficiency", 0.0);
+        Object history = ifNull("$reviewHistory", Collections.emptyList());
+
+        Document newStage = remembered
+                ? new Document("$min", Arrays.asList(new Document("$add", Arrays.asList(stage, 1)), REVIEW_INTERVALS.length - 1))
+                : new Document("$max", Arrays.asList(new Document("$subtract", Arrays.asList(stage, 1)), 0));
+        Document newProficiency = remembered
+                ? new Document("$min", Arrays.asList(new Document("$add", Arrays.asList(proficiency, 0.1)), 1.0))
+                : new Document("$max", Arrays.asList(new Document("$subtract", Arrays.asList(proficiency, 0.1)), 0.0));
+
+        Document record = new Document("reviewTime", now).append("remembered", remembered);
+        Document newHistory = new Document("$slice", Arrays.asList(
+                new Document("$concatArrays", Arrays.asList(history, Collections.singletonList(record))),
+                -WordLearningProgress.MAX_REVIEW_HISTORY));
+
+        // 旧数据没有汇总计数时按现有历史补齐
+        Document totalReviews = new Document("$add", Arrays.asList(
+                ifNull("$totalReviews", new Document("$size", history)), 1));
+        Document successfulReviews = new Document("$add", Arrays.asList(
+                ifNull("$successfulReviews", new Document("$size", new Document("$filter",
+                        new Document("input", history).append("as", "r").append("cond", "$$r.remembered")))),
+                remembered ? 1 : 0));
+
+        Document firstStage = new Document("$set", new Document("reviewStage", newStage)
+                .append("proficiency", newProficiency)
+                .append("lastReviewTime", now)
+                .append("reviewHistory", newHistory)
+                .append("totalReviews", totalReviews)
+                .append("successfulReviews", successfulReviews));
+
+        List<Integer> intervals = Arrays.stream(REVIEW_INTERVALS).boxed().collect(Collectors.toList());
+        Document secondStage = new Document("$set", new Document("nextReviewTime", new Document("$add", Arrays.asList(
+                now,
+                new Document("$multiply", Arrays.asList(
+                        new Document("$arrayElemAt", Arrays.asList(intervals, "$reviewStage")), DAY_MILLIS))))));
+
+        return Arrays.asList(firstStage, secondStage);
+    }
+
+    private static Document ifNull(String field, Object defaultValue) {
+        return new Document("$ifNull", Arrays.asList(field, defaultValue));
+    }
+
+    /**
+     * 将复习记录追加到归档集合，归档只增不改
+     */
+    private void archiveReviewHistory(WordLearningProgress progress,
+                                      List<WordLearningProgress.ReviewRecord> legacyHistory,
+                                      WordLearningProgress.ReviewRecord record) {
+        List<ReviewHistoryArchive> entries = new ArrayList<>(legacyHistory.size() + 1);
+        for (WordLearningProgress.ReviewRecord legacy : legacyHistory) {
+            // 旧记录没有保存复习阶段，记为 -1
+            entries.add(new ReviewHistoryArchive(progress.getUserId(), progress.getWordId(),
+                    legacy.getReviewTime(), legacy.isRemembered(), -1));
+        }
+        entries.add(new ReviewHistoryArchive(progress.getUserId(), progress.getWordId(),
+                record.getReviewTime(), record.isRemembered(), progress.getReviewStage()));
+        mongoTemplate.insertAll(entries);
+    }
+
+    /**
+     * 批量开始学习：一次 bulkWrite upsert 所有单词的学习进度，并只写一条合并的学习记录
+     * @param userId 用户ID
+     * @param wordIds 单词ID列表
+     * @return 每个单词的处理结果（created / exists / invalid / failed）
+     */
+    public BatchLearningResponse startLearningWords(String userId, List<String> wordIds) {
+        checkBatchSize(wordIds);
+
+        Date now = new Date();
+        String[] statuses = new String[wordIds.size()];
+        String[] messages = new String[wordIds.size()];
+
+        // 同一个单词在请求中出现多次时只写一次
+        Map<ObjectId, Integer> firstIndex = new LinkedHashMap<>();
+        for (int i = 0; i < wordIds.size(); i++) {
+            String wordId = wordIds.get(i);
+            if (wordId == null || !ObjectId.isValid(wordId)) {
+                statuses[i] = "invalid";
+                messages[i] = "Invalid word id";
+            } else {
+                firstIndex.putIfAbsent(new ObjectId(wordId), i);
+            }
+        }
+
+        List<ObjectId> created = new ArrayList<>();
+        if (!firstIndex.isEmpty()) {
+            List<ObjectId> batchWordIds = new ArrayList<>(firstIndex.keySet());
+            BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, WordLearningProgress.class);
+            for (ObjectId wordId : batchWordIds) {
+                Query query = new Query(Criteria.where("userId").is(userId).and("wordId").is(wordId));
+                Update update = new Update()
+                        .setOnInsert("proficiency", 0.0)
+                        .setOnInsert("reviewStage", 0)
+                        .setOnInsert("reviewHistory", Collections.emptyList())
+                        .setOnInsert("totalReviews", 0)
+                        .setOnInsert("successfulReviews", 0)
+                        .setOnInsert("firstLearnTime", now)
+                        .setOnInsert("lastReviewTime", now)
+                        .setOnInsert("nextReviewTime", now);
+                bulkOps.upsert(query, update);
+            }
+
+            Map<Integer, String> errors = new HashMap<>();
+            BulkWriteResult result;
+            try {
+                result = bulkOps.execute();
+            } catch (BulkOperationException e) {
+                result = e.getResult();
+                e.getErrors().forEach(error -> errors.put(error.getIndex(), error.getMessage()));
+            }
+
+            Set<Integer> upserted = new HashSet<>();
+            result.getUpserts().forEach(upsert -> upserted.add(upsert.getIndex()));
+
+            for (int op = 0; op < batchWordIds.size(); op++) {
+                ObjectId wordId = batchWordIds.get(op);
+                int index = firstIndex.get(wordId);
+                if (errors.containsKey(op)) {
+                    statuses[index] = "failed";
+                    messages[index] = errors.get(op);
+                } else if (upserted.contains(op)) {
+                    statuses[index] = "created";
+                    created.add(wordId);
+                } else {
+                    statuses[index] = "exists";
+                }
+            }
+        }
+
+        if (!created.isEmpty()) {
+            List<WordLearningDetail> details = created.stream()
+                    .map(wordId -> new WordLearningDetail(wordId, true, 0))
+                    .collect(Collectors.toList());
+            learningRecordRepository.save(new LearningRecord(userId, now, "learn", details.size(), details));
+        }
+
+        BatchLearningResponse response = new BatchLearningResponse();
+        for (int i = 0; i < wordIds.size(); i++) {
+            // 重复出现的单词沿用第一次出现时的结果
+            String status = statuses[i];
+            String message = messages[i];
+            if (status == null) {
+                int index = firstIndex.get(new ObjectId(wordIds.get(i)));
+                status = "created".equals(statuses[index]) ? "exists" : statuses[index];
+                message = messages[index];
+            }
+            boolean success = "created".equals(status) || "exists".equals(status);
+            response.addResult(wordIds.get(i), status, success, message);
+        }
+        return response;
+    }
+
+    /**
+     * 批量记录复习结果：一次查询确认学习进度存在，再用一次有序 bulkWrite 应用所有复习更新管道
+     * @param userId 用户ID
+     * @param reviews 一次复习会话中的复习结果，按复习顺序排列
+     * @return 每条复习结果的处理结果（reviewed / not_found / invalid / failed / skipped）
+     */
+    public BatchLearningResponse recordReviewResults(String userId, List<ReviewItemRequest> reviews) {
+        checkBatchSize(reviews);
+
+        Date now = new Date();
+        String[] statuses = new String[reviews.size()];
+        String[] messages = new String[reviews.size()];
+
+        Set<ObjectId> requested = new HashSet<>();
+        for (int i = 0; i < reviews.size(); i++) {
+            String wordId = reviews.get(i) != null ? reviews.get(i).getWordId() : null;
+            if (wordId == null || !ObjectId.isValid(wordId)) {
+                statuses[i] = "invalid";
+                messages[i] = "Invalid word id";
+            } else {
+                requested.add(new ObjectId(wordId));
+            }
+        }
+
+        // 只投影判断所需的字段
+        Query existingQuery = new Query(Criteria.where("userId").is(userId).and("wordId").in(requested));
+        existingQuery.fields().include("wordId").include("reviewStage").include("totalReviews").exclude("_id");
+        Map<ObjectId, Integer> stages = new HashMap<>();
+        Set<ObjectId> legacy = new HashSet<>();
+        for (Document document : mongoTemplate.find(existingQuery, Document.class,
+                mongoTemplate.getCollectionName(WordLearningProgress.class))) {
+            ObjectId wordId = document.getObjectId("wordId");
+            stages.put(wordId, intValue(document, "reviewStage"));
+            if (!document.containsKey("totalReviews")) {
+                legacy.add(wordId);
+            }
+        }
+
+        List<WriteModel<Document>> writes = new ArrayList<>();
+        List<Integer> writeIndexes = new ArrayList<>();
+        List<ReviewHistoryArchive> archive = new ArrayList<>();
+        for (int i = 0; i < reviews.size(); i++) {
+            if (statuses[i] != null) {
+                continue;
+            }
+            ReviewItemRequest review = reviews.get(i);
+            ObjectId wordId = new ObjectId(review.getWordId());
+            if (!stages.containsKey(wordId)) {
+                statuses[i] = "not_found";
+                messages[i] = "Word has not been started";
+            } else if (legacy.remove(wordId)) {
+                // 旧数据需要先归档完整历史，走单条复习流程（每个旧文档只发生一次）
+                WordLearningProgress progress = recordReviewResult(userId, wordId, review.isRemembered());
+                if (progress == null) {
+                    stages.remove(wordId);
+                    statuses[i] = "not_found";
+                    messages[i] = "Word has not been started";
+                } else {
+                    stages.put(wordId, progress.getReviewStage());
+                    statuses[i] = "reviewed";
+                }
+            } else {
+                Document filter = new Document("userId", userId).append("wordId", wordId);
+                writes.add(new UpdateOneModel<>(filter, buildReviewPipeline(review.isRemembered(), now)));
+                writeIndexes.add(i);
+
+                // 按与更新管道相同的规则推算新阶段，用于归档记录
+                int stage = stages.get(wordId);
+                stage = review.isRemembered() ? Math.min(stage + 1, REVIEW_INTERVALS.length - 1) : Math.max(stage - 1, 0);
+                stages.put(wordId, stage);
+                archive.add(new ReviewHistoryArchive(userId, wordId, now, review.isRemembered(), stage));
+            }
+        }
+
+        if (!writes.isEmpty()) {
+            Map<Integer, String> errors = new HashMap<>();
+            try {
+                mongoTemplate.getCollection(mongoTemplate.getCollectionName(WordLearningProgress.class))
+                        .bulkWrite(writes, new BulkWriteOptions().ordered(true));
+            } catch (MongoBulkWriteException e) {
+                e.getWriteErrors().forEach(error -> errors.put(error.getIndex(), error.getMessage()));
+            }
+
+            // 有序写入在第一个错误处停止，之后的条目没有执行
+            int firstError = errors.isEmpty() ? writes.size() : Collections.min(errors.keySet());
+            List<ReviewHistoryArchive> applied = new ArrayList<>(archive.subList(0, firstError));
+            for (int op = 0; op < writes.size(); op++) {
+                int index = writeIndexes.get(op);
+                if (op < firstError) {
+                    statuses[index] = "reviewed";
+                } else if (op == firstError) {
+                    statuses[index] = "failed";
+                    messages[index] = errors.get(op);
+                } else {
+                    statuses[index] = "skipped";
+                    messages[index] = "Not applied because an earlier review failed";
+                }
+            }
+            if (!applied.isEmpty()) {
+                mongoTemplate.insertAll(applied);
+            }
+        }
+
+        BatchLearningResponse response = new BatchLearningResponse();
+        for (int i = 0; i < reviews.size(); i++) {
+            String wordId = reviews.get(i) != null ? reviews.get(i).getWordId() : null;
+            response.addResult(wordId, statuses[i], "reviewed".equals(statuses[i]), messages[i]);
+        }
+        return response;
+    }
+
+    private void checkBatchSize(List<?> items) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("Batch cannot be empty");
+        }
+        if (items.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Batch size cannot exceed " + MAX_BATCH_SIZE);
+        }
     }
 
     public List<WordLearningProgress> getTodayReviewWords(String userId) {
-        Date today = new Date();
-        Date startOfDay = new Date(today.getYear(), today.getMonth(), today.getDate());
-        Date endOfDay = new Date(today.getYear(), today.getMonth(), today.getDate() + 1);
+        Date[] today = dayRange(ZoneId.systemDefault());
+        Date startOfDay = today[0];
+        Date endOfDay = today[1];
 
         // 修改查询条件，确保只包括今天需要复习但尚未复习的单词
         Query query = new Query(Criteria.where("userId").is(userId)
@@ -104,9 +453,9 @@ public class WordLearningProgressService {
     public List<WordLearningProgress> getTodayReviewWordsForBook(String userId, ObjectId bookId) {
         List<ObjectId> bookWordIds = getBookWordIds(bookId);
 
-        Date today = new Date();
-        Date startOfDay = new Date(today.getYear(), today.getMonth(), today.getDate());
-        Date endOfDay = new Date(today.getYear(), today.getMonth(), today.getDate() + 1);
+        Date[] today = dayRange(ZoneId.systemDefault());
+        Date startOfDay = today[0];
+        Date endOfDay = today[1];
 
         // 修改查询条件，确保只包括今天需要复习但尚未复习的单词
         Query query = new Query(Criteria.where("userId").is(userId)
@@ -117,6 +466,119 @@ public class WordLearningProgressService {
         return mongoTemplate.find(query, WordLearningProgress.class);
     }
 
+    /**
+     * 分页获取今天的复习队列（包括逾期未复习的单词）
+     * 按优先级排序：逾期最久的在前，同一时间点熟练度低的在前
+     * @param userId 用户ID
+     * @param bookId 词书ID，为空时返回用户所有单词
+     * @param timeZone 用户时区（如 Asia/Shanghai），为空时使用服务器时区
+     * @param cursor 上一页返回的 nextCursor，第一页为空
+     * @param limit 每页数量
+     * @return 当前页的单词和下一页的游标
+     */
+    public ReviewQueuePage getReviewQueue(String userId, ObjectId bookId, String timeZone, String cursor, int limit) {
+        if (limit <= 0 || limit > MAX_REVIEW_QUEUE_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_REVIEW_QUEUE_PAGE_SIZE);
+        }
+
+        Date[] today = dayRange(parseZone(timeZone));
+        Criteria criteria = Criteria.where("userId").is(userId);
+        if (bookId != null) {
+            criteria.and("wordId").in(getBookWordIds(bookId));
+        }
+        criteria.and("nextReviewTime").lt(today[1])
+                .and("lastReviewTime").not().gte(today[0]);
+        if (cursor != null && !cursor.isEmpty()) {
+            criteria = new Criteria().andOperator(criteria, afterCursor(cursor));
+        }
+
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Order.asc("nextReviewTime"), Sort.Order.asc("proficiency"), Sort.Order.asc("_id")))
+                .limit(limit + 1);
+        query.fields().include("wordId", "nextReviewTime", "proficiency", "reviewStage");
+
+        // 多取一条用来判断是否还有下一页
+        ReviewQueuePage page = new ReviewQueuePage();
+        Document last = null;
+        try (CloseableIterator<Document> documents = mongoTemplate.stream(query, Document.class,
+                mongoTemplate.getCollectionName(WordLearningProgress.class))) {
+            while (documents.hasNext()) {
+                Document document = documents.next();
+                if (page.getItems().size() == limit) {
+                    page.setNextCursor(encodeCursor(last));
+                    break;
+                }
+                page.getItems().add(toReviewQueueItem(document));
+                last = document;
+            }
+        }
+        return page;
+    }
+
+    private ReviewQueuePage.Item toReviewQueueItem(Document document) {
+        ReviewQueuePage.Item item = new ReviewQueuePage.Item();
+        item.setWordId(document.getObjectId("wordId").toHexString());
+        item.setNextReviewTime(document.getDate("nextReviewTime"));
+        item.setProficiency(doubleValue(document, "proficiency"));
+        item.setReviewStage(intValue(document, "reviewStage"));
+        return item;
+    }
+
+    /**
+     * 游标格式：nextReviewTime毫秒:proficiency:_id，再做 Base64 编码
+     */
+    private String encodeCursor(Document document) {
+        String raw = document.getDate("nextReviewTime").getTime() + ":"
+                + doubleValue(document, "proficiency") + ":"
+                + document.getObjectId("_id").toHexString();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 按排序键 (nextReviewTime, proficiency, _id) 取游标之后的记录
+     */
+    private Criteria afterCursor(String cursor) {
+        Date nextReviewTime;
+        double proficiency;
+        ObjectId id;
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+            nextReviewTime = new Date(Long.parseLong(parts[0]));
+            proficiency = Double.parseDouble(parts[1]);
+            id = new ObjectId(parts[2]);
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+
+        return new Criteria().orOperator(
+                Criteria.where("nextReviewTime").gt(nextReviewTime),
+                Criteria.where("nextReviewTime").is(nextReviewTime).and("proficiency").gt(proficiency),
+                Criteria.where("nextReviewTime").is(nextReviewTime).and("proficiency").is(proficiency)
+                        .and("_id").gt(id));
+    }
+
+    private ZoneId parseZone(String timeZone) {
+        if (timeZone == null || timeZone.isEmpty()) {
+            return ZoneId.systemDefault();
+        }
+        try {
+            return ZoneId.of(timeZone);
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Invalid time zone: " + timeZone);
+        }
+    }
+
+    /**
+     * @return 指定时区下今天的 [开始, 结束) 时间
+     */
+    private Date[] dayRange(ZoneId zone) {
+        LocalDate today = LocalDate.now(zone);
+        return new Date[] {
+                Date.from(today.atStartOfDay(zone).toInstant()),
+                Date.from(today.plusDays(1).atStartOfDay(zone).toInstant())
+        };
+    }
+
     public long getOverdueReviewCount(String userId) {
         Query query = new Query(Criteria.where("userId").is(userId)
                 .and("nextReviewTime").lte(new Date()));
@@ -135,43 +597,117 @@ public class WordLearningProgressService {
     }
 
     public UserLearningStats getUserStats(String userId) {
-        Query query = new Query(Criteria.where("userId").is(userId));
-        List<WordLearningProgress> allProgress = mongoTemplate.find(query, WordLearningProgress.class);
+        return getUserStats(userId, false);
+    }
+
+    /**
+     * 获取用户总体学习统计，由数据库端聚合计算，不加载学习进度文档
+     * @param includeBreakdown 是否同时返回 初识/模糊/熟悉 的分布
+     */
+    public UserLearningStats getUserStats(String userId, boolean includeBreakdown) {
+        Document result = aggregateProficiencyStats(Criteria.where("userId").is(userId));
 
         UserLearningStats stats = new UserLearningStats();
-        stats.setTotalWords(allProgress.size());
-        stats.setMasteredWords((int) allProgress.stream()
-                .filter(p -> p.getProficiency() >= 0.9).count());
-        stats.setLearningWords((int) allProgress.stream()
-                .filter(p -> p.getProficiency() > 0 && p.getProficiency() < 0.9).count());
-        stats.setAverageProficiency(allProgress.stream()
-                .mapToDouble(WordLearningProgress::getProficiency)
-                .average().orElse(0.0));
+        stats.setTotalWords(intValue(result, "total"));
+        stats.setMasteredWords(intValue(result, "mastered"));
+        stats.setLearningWords(intValue(result, "learning"));
+        stats.setAverageProficiency(doubleValue(result, "averageProficiency"));
+        if (includeBreakdown) {
+            stats.setBreakdown(toBreakdown(result));
+        }
 
         return stats;
     }
 
     public BookLearningStats getBookStats(String userId, ObjectId bookId) {
+        return getBookStats(userId, bookId, false);
+    }
+
+    /**
+     * 获取词书学习统计，由数据库端聚合计算，不加载学习进度文档
+     * @param includeBreakdown 是否同时返回 初识/模糊/熟悉 的分布
+     */
+    public BookLearningStats getBookStats(String userId, ObjectId bookId, boolean includeBreakdown) {
         List<ObjectId> bookWordIds = getBookWordIds(bookId);
 
-        Query query = new Query(Criteria.where("userId").is(userId)
+        Document result = aggregateProficiencyStats(Criteria.where("userId").is(userId)
                 .and("wordId").in(bookWordIds));
-        List<WordLearningProgress> bookProgress = mongoTemplate.find(query, WordLearningProgress.class);
 
         BookLearningStats stats = new BookLearningStats();
         stats.setTotalWords(bookWordIds.size());
-        stats.setLearnedWords(bookProgress.size());
-        stats.setMasteredWords((int) bookProgress.stream()
-                .filter(p -> p.getProficiency() >= 0.9).count());
-        stats.setLearningWords((int) bookProgress.stream()
-                .filter(p -> p.getProficiency() > 0 && p.getProficiency() < 0.9).count());
-        stats.setAverageProficiency(bookProgress.stream()
-                .mapToDouble(WordLearningProgress::getProficiency)
-                .average().orElse(0.0));
+        stats.setLearnedWords(intValue(result, "total"));
+        stats.setMasteredWords(intValue(result, "mastered"));
+        stats.setLearningWords(intValue(result, "learning"));
+        stats.setAverageProficiency(doubleValue(result, "averageProficiency"));
+        if (includeBreakdown) {
+            stats.setBreakdown(toBreakdown(result));
+        }
 
         return stats;
     }
 
+    /**
+     * 按熟练度区间分组计数：$match -> $project(proficiency) -> $group
+     * 只投影 proficiency 字段，不读取 reviewHistory；没有匹配文档时返回 null
+     */
+    private Document aggregateProficiencyStats(Criteria criteria) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(criteria),
+                Aggregation.project("proficiency"),
+                Aggregation.group()
+                        .count().as("total")
+                        .sum(countIf(proficiencyAtLeast(0.9))).as("mastered")
+                        .sum(countIf(BooleanOperators.And.and(
+                                ComparisonOperators.valueOf("proficiency").greaterThanValue(0.0),
+                                ComparisonOperators.valueOf("proficiency").lessThanValue(0.9)))).as("learning")
+                        .sum(countIf(proficiencyBetween(0.0, 0.5))).as("newlyLearned")
+                        .sum(countIf(proficiencyBetween(0.5, 0.8))).as("fuzzy")
+                        .sum(countIf(BooleanOperators.And.and(
+                                proficiencyAtLeast(0.8),
+                                ComparisonOperators.valueOf("proficiency").lessThanEqualToValue(1.0)))).as("familiar")
+                        .avg("proficiency").as("averageProficiency")
+        );
+
+        return mongoTemplate.aggregate(aggregation,
+                mongoTemplate.getCollectionName(WordLearningProgress.class), Document.class)
+                .getUniqueMappedResult();
+    }
+
+    private AggregationExpression proficiencyAtLeast(double lower) {
+        return ComparisonOperators.valueOf("proficiency").greaterThanEqualToValue(lower);
+    }
+
+    /**
+     * lower <= proficiency < upper
+     */
+    private AggregationExpression proficiencyBetween(double lower, double upper) {
+        return BooleanOperators.And.and(
+                proficiencyAtLeast(lower),
+                ComparisonOperators.valueOf("proficiency").lessThanValue(upper));
+    }
+
+    private AggregationExpression countIf(AggregationExpression condition) {
+        return ConditionalOperators.when(condition).then(1).otherwise(0);
+    }
+
+    private ProficiencyBreakdown toBreakdown(Document result) {
+        ProficiencyBreakdown breakdown = new ProficiencyBreakdown();
+        breakdown.setNewlyLearnedWords(intValue(result, "newlyLearned"));
+        breakdown.setFuzzyWords(intValue(result, "fuzzy"));
+        breakdown.setFamiliarWords(intValue(result, "familiar"));
+        return breakdown;
+    }
+
+    private static int intValue(Document document, String key) {
+        Object value = document != null ? document.get(key) : null;
+        return value instanceof Number ? ((Number) value).intValue() : 0;
+    }
+
+    private static double doubleValue(Document document, String key) {
+        Object value = document != null ? document.get(key) : null;
+        return value instanceof Number ? ((Number) value).doubleValue() : 0.0;
+    }
+
     public Optional<WordLearningProgress> getWordProgress(String userId, ObjectId wordId) {
         Query query = new Query(Criteria.where("userId").is(userId)
                 .and("wordId").is(wordId));
@@ -192,9 +728,9 @@ public class WordLearningProgressService {
     public List<WordLearningProgress> getBookReviewWords(String userId, ObjectId bookId) {
         List<ObjectId> bookWordIds = getBookWordIds(bookId);
 
-        Date today = new Date();
-        Date startOfDay = new Date(today.getYear(), today.getMonth(), today.getDate());
-        Date endOfDay = new Date(today.getYear(), today.getMonth(), today.getDate() + 1);
+        Date[] today = dayRange(ZoneId.systemDefault());
+        Date startOfDay = today[0];
+        Date endOfDay = today[1];
 
         Query query = new Query(Criteria.where("userId").is(userId)
                 .and("wordId").in(bookWordIds)
@@ -213,22 +749,58 @@ public class WordLearningProgressService {
     }
 
     private Date calculateNextReviewTime(Date lastReviewTime, int intervalDays) {
-        return new Date(lastReviewTime.getTime() + intervalDays * 24 * 60 * 60 * 1000);
+        return new Date(lastReviewTime.getTime() + intervalDays * DAY_MILLIS);
     }
 
     private List<ObjectId> getBookWordIds(ObjectId bookId) {
-        Query systemQuery = new Query(Criteria.where("_id").is(bookId));
-        SystemWordbook systemBook = mongoTemplate.findOne(systemQuery, SystemWordbook.class);
-        if (systemBook != null) {
-            return systemBook.getWords();
+        return wordbookIndexService.getBookWordIds(bookId);
+    }
+
+    /**
+     * 计算用户在词书中已学习的单词位置
+     * 只投影 wordId 字段并以游标方式读取，不加载完整的学习进度文档
+     * @return 以词书位置为下标的位图，已学习的位置为 1
+     */
+    private BitSet getLearnedPositions(String userId, WordbookIndexService.BookWords bookWords) {
+        BitSet learned = new BitSet(bookWords.size());
+        if (bookWords.size() == 0) {
+            return learned;
         }
 
-        UserWordbook userBook = mongoTemplate.findOne(systemQuery, UserWordbook.class);
-        if (userBook != null) {
-            return userBook.getWords();
+        Query query = new Query(Criteria.where("userId").is(userId));
+        query.fields().include("wordId").exclude("_id");
+
+        try (CloseableIterator<Document> cursor = mongoTemplate.stream(query, Document.class,
+                mongoTemplate.getCollectionName(WordLearningProgress.class))) {
+            while (cursor.hasNext()) {
+                markLearned(bookWords, learned, cursor.next().get("wordId"));
+            }
         }
+        return learned;
+    }
+
+    /**
+     * 把已学习单词在词书中的位置置为 1，不在词书中的单词忽略
+     */
+    static void markLearned(WordbookIndexService.BookWords bookWords, BitSet learned, Object wordId) {
+        if (wordId instanceof ObjectId) {
+            int position = bookWords.positionOf((ObjectId) wordId);
+            if (position >= 0) {
+                learned.set(position);
+            }
+        }
+    }
 
-        throw new IllegalArgumentException("Wordbook not found: " + bookId);
+    /**
+     * 按词书顺序取前 limit 个未学习（位图中为 0）的单词
+     */
+    static List<ObjectId> firstUnlearned(WordbookIndexService.BookWords bookWords, BitSet learned, int limit) {
+        List<ObjectId> unlearned = new ArrayList<>(Math.max(0, Math.min(limit, bookWords.size() - learned.cardinality())));
+        for (int i = learned.nextClearBit(0); i < bookWords.size() && unlearned.size() < limit;
+             i = learned.nextClearBit(i + 1)) {
+            unlearned.add(bookWords.get(i));
+        }
+        return unlearned;
     }
 
     /**
@@ -286,36 +858,15 @@ public class WordLearningProgressService {
      * @return 未学习单词列表
      */
     public List<WordLearningProgress> getUnlearnedWordsFromBook(String userId, ObjectId bookId) {
-        // 获取词书中所有的单词ID
-        List<ObjectId> allBookWordIds = getBookWordIds(bookId);
-
-        // 查询用户已经学习过的单词
-        Query learnedQuery = new Query(Criteria.where("userId").is(userId)
-                .and("wordId").in(allBookWordIds));
-        List<WordLearningProgress> learnedWords = mongoTemplate.find(learnedQuery, WordLearningProgress.class);
-
-        // 提取已学习单词的ID
-        List<ObjectId> learnedWordIds = learnedWords.stream()
-                .map(WordLearningProgress::getWordId)
-                .collect(Collectors.toList());
-
-        // 过滤出未学习的单词ID
-        List<ObjectId> unlearnedWordIds = allBookWordIds.stream()
-                .filter(wordId -> !learnedWordIds.contains(wordId))
-                .collect(Collectors.toList());
-
-        if (unlearnedWordIds.isEmpty()) {
-            return Collections.emptyList(); // 如果没有未学习的单词，返回空列表
-        }
+        WordbookIndexService.BookWords bookWords = wordbookIndexService.getBookWords(bookId);
+        BitSet learned = getLearnedPositions(userId, bookWords);
 
         // 为未学习的单词创建临时进度对象，并标记为非数据库对象
-        List<WordLearningProgress> unlearnedWords = unlearnedWordIds.stream()
-                .map(wordId -> {
-                    WordLearningProgress progress = new WordLearningProgress(userId, wordId);
-                    return progress;
-                })
-                .collect(Collectors.toList());
-
+        List<ObjectId> unlearnedIds = firstUnlearned(bookWords, learned, bookWords.size());
+        List<WordLearningProgress> unlearnedWords = new ArrayList<>(unlearnedIds.size());
+        for (ObjectId wordId : unlearnedIds) {
+            unlearnedWords.add(new WordLearningProgress(userId, wordId));
+        }
         return unlearnedWords;
     }
     // 内部类保持不变，因为它们不涉及 userId
@@ -324,6 +875,8 @@ public class WordLearningProgressService {
         private int masteredWords;
         private int learningWords;
         private double averageProficiency;
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private ProficiencyBreakdown breakdown;
 
         public int getTotalWords() { return totalWords; }
         public void setTotalWords(int totalWords) { this.totalWords = totalWords; }
@@ -333,6 +886,8 @@ public class WordLearningProgressService {
         public void setLearningWords(int learningWords) { this.learningWords = learningWords; }
         public double getAverageProficiency() { return averageProficiency; }
         public void setAverageProficiency(double averageProficiency) { this.averageProficiency = averageProficiency; }
+        public ProficiencyBreakdown getBreakdown() { return breakdown; }
+        public void setBreakdown(ProficiencyBreakdown breakdown) { this.breakdown = breakdown; }
     }
 
     public static class BookLearningStats {
@@ -341,6 +896,8 @@ public class WordLearningProgressService {
         private int masteredWords;
         private int learningWords;
         private double averageProficiency;
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private ProficiencyBreakdown breakdown;
 
         public int getTotalWords() { return totalWords; }
         public void setTotalWords(int totalWords) { this.totalWords = totalWords; }
@@ -352,29 +909,35 @@ public class WordLearningProgressService {
         public void setLearningWords(int learningWords) { this.learningWords = learningWords; }
         public double getAverageProficiency() { return averageProficiency; }
         public void setAverageProficiency(double averageProficiency) { this.averageProficiency = averageProficiency; }
+        public ProficiencyBreakdown getBreakdown() { return breakdown; }
+        public void setBreakdown(ProficiencyBreakdown breakdown) { this.breakdown = breakdown; }
     }
 
-    public List<String> getNewWordsFromBook(String userId, ObjectId bookId, int batchSize) {
-        // 获取词书中所有的单词ID
-        List<ObjectId> allBookWordIds = getBookWordIds(bookId);
-
-        // 查询用户已经学习过的单词
-        Query query = new Query(Criteria.where("userId").is(userId)
-                .and("wordId").in(allBookWordIds));
-        List<WordLearningProgress> learnedWords = mongoTemplate.find(query, WordLearningProgress.class);
-
-        // 提取已学习单词的ID
-        List<ObjectId> learnedWordIds = learnedWords.stream()
-                .map(WordLearningProgress::getWordId)
-                .collect(Collectors.toList());
+    /**
+     * 熟练度分布：初识 [0, 0.5)、模糊 [0.5, 0.8)、熟悉 [0.8, 1]
+     */
+    public static class ProficiencyBreakdown {
+        private int newlyLearnedWords;
+        private int fuzzyWords;
+        private int familiarWords;
+
+        public int getNewlyLearnedWords() { return newlyLearnedWords; }
+        public void setNewlyLearnedWords(int newlyLearnedWords) { this.newlyLearnedWords = newlyLearnedWords; }
+        public int getFuzzyWords() { return fuzzyWords; }
+        public void setFuzzyWords(int fuzzyWords) { this.fuzzyWords = fuzzyWords; }
+        public int getFamiliarWords() { return familiarWords; }
+        public void setFamiliarWords(int familiarWords) { this.familiarWords = familiarWords; }
+    }
 
-        // 过滤出未学习的单词，并转换为字符串ID
-        List<String> newWordIds = allBookWordIds.stream()
-                .filter(wordId -> !learnedWordIds.contains(wordId))
-                .limit(batchSize)
-                .map(ObjectId::toString)
-                .collect(Collectors.toList());
+    public List<String> getNewWordsFromBook(String userId, ObjectId bookId, int batchSize) {
+        WordbookIndexService.BookWords bookWords = wordbookIndexService.getBookWords(bookId);
+        BitSet learned = getLearnedPositions(userId, bookWords);
 
+        // 按词书顺序取前 batchSize 个未学习的单词
+        List<String> newWordIds = new ArrayList<>();
+        for (ObjectId wordId : firstUnlearned(bookWords, learned, batchSize)) {
+            newWordIds.add(wordId.toString());
+        }
         return newWordIds;
     }
 
@@ -385,25 +948,8 @@ public class WordLearningProgressService {
      * @return 未学习单词数量
      */
     public int getNewWordsCountFromBook(String userId, ObjectId bookId) {
-        // 获取词书中所有的单词ID
-        List<ObjectId> allBookWordIds = getBookWordIds(bookId);
-
-        // 查询用户已经学习过的单词
-        Query query = new Query(Criteria.where("userId").is(userId)
-                .and("wordId").in(allBookWordIds));
-        List<WordLearningProgress> learnedWords = mongoTemplate.find(query, WordLearningProgress.class);
-
-        // 提取已学习单词的ID
-        List<ObjectId> learnedWordIds = learnedWords.stream()
-                .map(WordLearningProgress::getWordId)
-                .collect(Collectors.toList());
-
-        // 计算未学习的单词数量（Java 8写法）
-        long count = allBookWordIds.stream()
-                .filter(wordId -> !learnedWordIds.contains(wordId))
-                .count();
-
-        return (int) count;
+        WordbookIndexService.BookWords bookWords = wordbookIndexService.getBookWords(bookId);
+        return bookWords.size() - getLearnedPositions(userId, bookWords).cardinality();
     }
 
     /**
@@ -415,9 +961,9 @@ public class WordLearningProgressService {
     public int getTodayReviewWordsCountForBook(String userId, ObjectId bookId) {
         List<ObjectId> bookWordIds = getBookWordIds(bookId);
 
-        Date today = new Date();
-        Date startOfDay = new Date(today.getYear(), today.getMonth(), today.getDate());
-        Date endOfDay = new Date(today.getYear(), today.getMonth(), today.getDate() + 1);
+        Date[] today = dayRange(ZoneId.systemDefault());
+        Date startOfDay = today[0];
+        Date endOfDay = today[1];
 
         // 修改查询条件，确保只包括今天需要复习但尚未复习的单词
         Query query = new Query(Criteria.where("userId").is(userId)
@@ -1,12 +1,20 @@
 package com.tongji.wordtrail.service;
 
 import com.mongodb.client.result.DeleteResult;
+import com.tongji.wordtrail.dto.CursorPage;
+import com.tongji.wordtrail.dto.QuizQuestion;
+import com.tongji.wordtrail.dto.QuizRequest;
+import com.tongji.wordtrail.model.Words;
+import com.tongji.wordtrail.util.KeysetPager;
 import lombok.extern.slf4j.Slf4j;
 import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.aggregation.Aggregation;
 import org.springframework.data.mongodb.core.query.Criteria;
@@ -18,6 +26,7 @@ import org.bson.Document;
 import org.springframework.util.StringUtils;
 
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 import org.springframework.data.mongodb.core.aggregation.AggregationResults;
 
@@ -29,10 +38,28 @@ public class WordService {
      * 将 MongoTemplate 实例注入到 WordService 类中，以便在类中使用 MongoDB 的操作功能
      */
     private final MongoTemplate mongoTemplate;
+    private final ConfusionIndexService confusionIndexService;
+    private final WordbookIndexService wordbookIndexService;
+    private final CollectionCountService collectionCountService;
+    private final WordCacheService wordCacheService;
+
+    // 读取单词时只取 Words 模型中的字段，直接解码为 Words 对象，不再经过 Document -> Map 转换
+    private static final String[] WORD_FIELDS = {
+            "word", "language", "difficulty", "synonyms", "antonyms", "tags", "phonetics", "partOfSpeechList"
+    };
+
+    private static final int MAX_QUIZ_SIZE = 50;
+    private static final int MAX_QUIZ_OPTIONS = 10;
 
     @Autowired
-    public WordService(MongoTemplate mongoTemplate) {
+    public WordService(MongoTemplate mongoTemplate, ConfusionIndexService confusionIndexService,
+                       WordbookIndexService wordbookIndexService, CollectionCountService collectionCountService,
+                       WordCacheService wordCacheService) {
         this.mongoTemplate = mongoTemplate;
+        this.confusionIndexService = confusionIndexService;
+        this.wordbookIndexService = wordbookIndexService;
+        this.collectionCountService = collectionCountService;
+        this.wordCacheService = wordCacheService;
     }
 
     /**
@@ -78,21 +105,38 @@ public class WordService {
     }
 
     /**
-     * 获取单词 - 确保返回的 id 是 ObjectId 的字符串形式
+     * 工具方法：构建只包含 Words 模型字段的查询
      */
-    public Optional<Map<String, Object>> getWord(String id) {
-        try {
-            // 将字符串 id 转换为 ObjectId
-            ObjectId objectId = new ObjectId(id);
-            Query query = new Query(Criteria.where("_id").is(objectId));
+    private Query wordQuery() {
+        Query query = new Query();
+        query.fields().include(WORD_FIELDS);
+        return query;
+    }
 
-            Document document = mongoTemplate.findOne(query, Document.class, "words");
+    private Query wordQuery(Criteria criteria) {
+        return wordQuery().addCriteria(criteria);
+    }
 
-            if (document == null) {
-                return Optional.empty();
-            }
+    /**
+     * 工具方法：按ID批量读取单词（按 ids 顺序），先查缓存，只为缓存中没有的ID查询数据库
+     */
+    private List<Words> findWordsByObjectIds(Collection<ObjectId> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return wordCacheService.getAll(ids,
+                missing -> mongoTemplate.find(wordQuery(Criteria.where("_id").in(missing)), Words.class));
+    }
 
-            return Optional.of(convertDocumentToMap(document));
+    /**
+     * 获取单词
+     */
+    public Optional<Words> getWord(String id) {
+        try {
+            // 将字符串 id 转换为 ObjectId
+            ObjectId objectId = new ObjectId(id);
+            return Optional.ofNullable(wordCacheService.get(objectId,
+                    key -> mongoTemplate.findOne(wordQuery(Criteria.where("_id").is(key)), Words.class)));
         } catch (IllegalArgumentException e) {
             // 处理无效的 ObjectId 格式
             log.error("Invalid ObjectId format: {}", id, e);
@@ -101,19 +145,16 @@ public class WordService {
     }
 
     /**
-     * 批量获取单词 - 确保返回的 id 是 ObjectId 的字符串形式
+     * 批量获取单词
      */
-    public List<Map<String, Object>> getWordsByIds(List<String> ids) {
+    public List<Words> getWordsByIds(List<String> ids) {
         try {
             // 将字符串 id 列表转换为 ObjectId 列表
             List<ObjectId> objectIds = ids.stream()
                     .map(ObjectId::new)
                     .collect(Collectors.toList());
 
-            Query query = new Query(Criteria.where("_id").in(objectIds));
-            List<Document> documents = mongoTemplate.find(query, Document.class, "words");
-
-            return convertDocumentsToMaps(documents);
+            return findWordsByObjectIds(objectIds);
         } catch (IllegalArgumentException e) {
             // 处理无效的 ObjectId 格式
             log.error("Invalid ObjectId format in ids list", e);
@@ -124,8 +165,8 @@ public class WordService {
     /**
      * 批量获取单词
      */
-    public List<Map<String, Object>> getWords(Map<String, String> queryParams) {
-        Query query = new Query();
+    public List<Words> getWords(Map<String, String> queryParams) {
+        Query query = wordQuery();
 
         // 使用 Stream 处理查询参数
         queryParams.entrySet().stream()
@@ -134,23 +175,37 @@ public class WordService {
                         Criteria.where(entry.getKey()).is(entry.getValue())
                 ));
 
-        List<Document> documents = mongoTemplate.find(query, Document.class, "words");
-        return convertDocumentsToMaps(documents);
+        return mongoTemplate.find(query, Words.class);
     }
 
     /**
      * 分页获取单词
      */
-    public Page<Map<String, Object>> getWordsWithPagination(int page, int size) {
-        Query query = new Query().with(PageRequest.of(page, size));
-        long total = mongoTemplate.count(query, "words");
+    public Page<Words> getWordsWithPagination(int page, int size) {
+        Query query = wordQuery().with(PageRequest.of(page, size));
+        // 总数只按过滤条件统计，不受分页参数影响
+        long total = collectionCountService.count(query, "words");
 
-        List<Document> documents = mongoTemplate.find(query, Document.class, "words");
-        List<Map<String, Object>> words = convertDocumentsToMaps(documents);
+        List<Words> words = mongoTemplate.find(query, Words.class);
 
         return new PageImpl<>(words, PageRequest.of(page, size), total);
     }
 
+    /**
+     * 游标分页获取单词（按 _id 升序），深度分页不再需要 skip
+     * @param cursor 上一页返回的 nextCursor，第一页为空
+     * @param includeTotal 是否返回总数（集合的估算总数）
+     */
+    public CursorPage<Words> getWordsByCursor(String cursor, int size, boolean includeTotal) {
+        Query query = KeysetPager.apply(wordQuery(), cursor, size, Sort.Direction.ASC);
+        CursorPage<Words> page = KeysetPager.toPage(mongoTemplate.find(query, Words.class), size,
+                Words::getId, word -> word);
+        if (includeTotal) {
+            page.setTotal(collectionCountService.count(null, "words"));
+        }
+        return page;
+    }
+
     /**
      * 保存单词数据
      */
@@ -176,6 +231,11 @@ public class WordService {
         if (savedDocument == null) {
             throw new RuntimeException("Failed to save word");
         }
+        confusionIndexService.put(savedDocument);
+        if (savedDocument.get("_id") instanceof ObjectId) {
+            wordCacheService.invalidate(savedDocument.getObjectId("_id"));
+        }
+        collectionCountService.invalidate("words");
 
         return convertDocumentToMap(savedDocument);
     }
@@ -199,11 +259,29 @@ public class WordService {
                             data.put("_id", idValue);
                         }
                     }
+                    // 没有 id 的单词预先分配，便于一次 bulkWrite 后直接返回
+                    data.putIfAbsent("_id", new ObjectId());
                     return new Document(data);
                 })
-                .map(doc -> mongoTemplate.save(doc, "words"))
                 .collect(Collectors.toList());
 
+        // 与 save 语义相同：按 _id 覆盖或插入，所有单词一次 bulkWrite 写入
+        if (!savedDocuments.isEmpty()) {
+            BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, "words");
+            for (Document doc : savedDocuments) {
+                bulkOps.replaceOne(new Query(Criteria.where("_id").is(doc.get("_id"))), doc,
+                        FindAndReplaceOptions.options().upsert());
+            }
+            bulkOps.execute();
+        }
+        for (Document doc : savedDocuments) {
+            confusionIndexService.put(doc);
+            if (doc.get("_id") instanceof ObjectId) {
+                wordCacheService.invalidate(doc.getObjectId("_id"));
+            }
+        }
+        collectionCountService.invalidate("words");
+
         return convertDocumentsToMaps(savedDocuments);
     }
 
@@ -227,6 +305,13 @@ public class WordService {
                 return Optional.empty();
             }
 
+            // findAndModify 返回的是修改前的文档，合并修改内容后更新混淆选项索引
+            Document current = new Document(updated);
+            current.putAll(updateData);
+            confusionIndexService.put(current);
+            wordCacheService.invalidate(objectId);
+            collectionCountService.invalidate("words");
+
             return Optional.of(convertDocumentToMap(updated));
         } catch (IllegalArgumentException e) {
             log.error("Invalid ObjectId format: {}", id, e);
@@ -242,13 +327,26 @@ public class WordService {
             ObjectId objectId = new ObjectId(id);
             Query query = new Query(Criteria.where("_id").is(objectId));
             DeleteResult result = mongoTemplate.remove(query, "words");
-            return result.getDeletedCount() > 0;
+            if (result.getDeletedCount() > 0) {
+                confusionIndexService.remove(objectId);
+                wordCacheService.invalidate(objectId);
+                collectionCountService.invalidate("words");
+                return true;
+            }
+            return false;
         } catch (IllegalArgumentException e) {
             log.error("Invalid ObjectId format: {}", id, e);
             return false;
         }
     }
 
+    /**
+     * 单词缓存统计
+     */
+    public Map<String, Object> getCacheStats() {
+        return wordCacheService.stats();
+    }
+
     /**
      * 聚合查询：按指定字段分组统计
      * @param field 要统计的字段名
@@ -346,69 +444,120 @@ public class WordService {
 
     /**
      * 生成混淆选项
+     * 从内存中的混淆选项索引随机抽取同语言、同难度、长度相近的单词，不查询数据库
      */
     public List<String> generateConfusionOptions(String wordId) {
-        // 1. 获取目标单词
-        Map<String, Object> targetWord = getWord(wordId)
-                .orElseThrow(() -> new IllegalArgumentException("Word not found"));
+        if (!ObjectId.isValid(wordId)) {
+            log.error("Invalid ObjectId format: {}", wordId);
+            return new ArrayList<>();
+        }
 
-        // 2. 构建查询条件来找到相似的单词
-        try {
-            ObjectId objectId = new ObjectId(wordId);
-            Query query = new Query();
-            query.addCriteria(Criteria.where("_id").ne(objectId)); // 排除目标单词自身
-
-            // 添加相似性条件
-            if (targetWord.containsKey("length")) {
-                int length = (int) targetWord.get("length");
-                query.addCriteria(Criteria.where("length")
-                        .gte(length - 2)
-                        .lte(length + 2));
+        return confusionIndexService.sampleDistractors(new ObjectId(wordId), 4, Collections.emptySet())
+                .stream()
+                .map(ObjectId::toHexString)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 批量生成测验题目
+     * 同一份测验中混淆选项不会重复使用，所有单词详情通过一次 $in 查询获取
+     * @param request 目标单词ID列表，或者词书ID + 题目数量
+     * @return 按目标单词顺序排列的题目，不存在的单词会被跳过
+     * @throws IllegalArgumentException 参数不合法或词书不存在
+     */
+    public List<QuizQuestion> generateQuiz(QuizRequest request) {
+        if (request.getOptionCount() <= 0 || request.getOptionCount() > MAX_QUIZ_OPTIONS) {
+            throw new IllegalArgumentException("Option count must be between 1 and " + MAX_QUIZ_OPTIONS);
+        }
+        List<ObjectId> targets = resolveQuizTargets(request);
+
+        // 1. 从混淆选项索引中为每道题抽取选项，已用过的选项不再使用
+        // 所有题目的正确答案也不能作为其他题目的选项，否则会泄露答案
+        Set<ObjectId> used = new HashSet<>(targets);
+        Set<ObjectId> allIds = new HashSet<>();
+        Map<ObjectId, List<ObjectId>> distractors = new LinkedHashMap<>();
+        for (ObjectId target : targets) {
+            if (!confusionIndexService.contains(target)) {
+                continue;
             }
-            if (targetWord.containsKey("pos")) {
-                query.addCriteria(Criteria.where("pos").is(targetWord.get("pos")));
+            List<ObjectId> options = confusionIndexService.sampleDistractors(target, request.getOptionCount(), used);
+            used.addAll(options);
+            allIds.add(target);
+            allIds.addAll(options);
+            distractors.put(target, options);
+        }
+        if (distractors.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // 2. 一次查询取回所有目标单词和选项
+        Map<ObjectId, Words> words = findWordsByObjectIds(allIds).stream()
+                .collect(Collectors.toMap(Words::getId, word -> word));
+
+        // 3. 按目标单词顺序组装题目
+        List<QuizQuestion> questions = new ArrayList<>();
+        for (Map.Entry<ObjectId, List<ObjectId>> entry : distractors.entrySet()) {
+            Words target = words.get(entry.getKey());
+            if (target == null) {
+                continue;
             }
-            if (targetWord.containsKey("difficulty")) {
-                query.addCriteria(Criteria.where("difficulty").is(targetWord.get("difficulty")));
+            QuizQuestion question = new QuizQuestion();
+            question.setWord(target);
+            for (ObjectId optionId : entry.getValue()) {
+                Words option = words.get(optionId);
+                if (option != null) {
+                    question.getDistractors().add(option);
+                }
             }
+            questions.add(question);
+        }
+        return questions;
+    }
 
-            // 3. 随机获取4个符合条件的单词
-            List<Document> documents = mongoTemplate.find(query, Document.class, "words");
-            List<Map<String, Object>> similarWords = convertDocumentsToMaps(documents);
-
-            // 4. 如果找到的单词不够4个，放宽条件重新查询
-            if (similarWords.size() < 4) {
-                query = new Query();
-                query.addCriteria(Criteria.where("_id").ne(objectId));
-                if (targetWord.containsKey("difficulty")) {
-                    query.addCriteria(Criteria.where("difficulty").is(targetWord.get("difficulty")));
+    private List<ObjectId> resolveQuizTargets(QuizRequest request) {
+        if (request.getWordIds() != null && !request.getWordIds().isEmpty()) {
+            if (request.getWordIds().size() > MAX_QUIZ_SIZE) {
+                throw new IllegalArgumentException("Quiz size cannot exceed " + MAX_QUIZ_SIZE);
+            }
+            Set<ObjectId> targets = new LinkedHashSet<>();
+            for (String wordId : request.getWordIds()) {
+                if (!ObjectId.isValid(wordId)) {
+                    throw new IllegalArgumentException("Invalid word ID: " + wordId);
                 }
-                documents = mongoTemplate.find(query, Document.class, "words");
-                similarWords = convertDocumentsToMaps(documents);
+                targets.add(new ObjectId(wordId));
             }
+            return new ArrayList<>(targets);
+        }
 
-            // 5. 随机选择4个单词
-            Collections.shuffle(similarWords);
-            return similarWords.stream()
-                    .limit(4)
-                    .map(word -> word.get("id").toString())
-                    .collect(Collectors.toList());
-        } catch (IllegalArgumentException e) {
-            log.error("Invalid ObjectId format: {}", wordId, e);
-            return new ArrayList<>();
+        if (request.getBookId() == null || !ObjectId.isValid(request.getBookId())) {
+            throw new IllegalArgumentException("Either wordIds or a valid bookId is required");
+        }
+        Integer count = request.getCount();
+        if (count == null || count <= 0 || count > MAX_QUIZ_SIZE) {
+            throw new IllegalArgumentException("Count must be between 1 and " + MAX_QUIZ_SIZE);
+        }
+
+        // 从词书中随机选择 count 个单词（部分 Fisher-Yates 洗牌）
+        List<ObjectId> bookWords = new ArrayList<>(wordbookIndexService.getBookWordIds(new ObjectId(request.getBookId())));
+        int size = Math.min(count, bookWords.size());
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < size; i++) {
+            Collections.swap(bookWords, i, i + random.nextInt(bookWords.size() - i));
         }
+        return new ArrayList<>(bookWords.subList(0, size));
     }
 
     /**
      * 获取词书中熟练度模糊的单词（0.5 <= proficiency < 0.8）
      */
-    public List<Map<String, Object>> getFuzzyWordsFromBook(String userId, String bookId) {
+    public List<Words> getFuzzyWordsFromBook(String userId, String bookId) {
         try {
             // 查询学习进度
             Query query = new Query(Criteria.where("userId").is(userId)
                     .and("bookId").is(bookId)
                     .and("proficiency").gte(0.5).lt(0.8));
 
+            query.fields().include("wordId");
             List<Document> learningProgressList = mongoTemplate.find(query, Document.class, "word_learning_progress");
 
             // 提取wordId列表
@@ -423,10 +572,7 @@ public class WordService {
             }
 
             // 查询单词详情
-            Query wordQuery = new Query(Criteria.where("_id").in(wordIds));
-            List<Document> wordDocuments = mongoTemplate.find(wordQuery, Document.class, "words");
-
-            return convertDocumentsToMaps(wordDocuments);
+            return findWordsByObjectIds(wordIds);
         } catch (Exception e) {
             log.error("Error getting fuzzy words from book: ", e);
             return new ArrayList<>();
@@ -436,13 +582,14 @@ public class WordService {
     /**
      * 获取词书中熟悉的单词（0.8 <= proficiency <= 1）
      */
-    public List<Map<String, Object>> getFamiliarWordsFromBook(String userId, String bookId) {
+    public List<Words> getFamiliarWordsFromBook(String userId, String bookId) {
         try {
             // 查询学习进度
             Query query = new Query(Criteria.where("userId").is(userId)
                     .and("bookId").is(bookId)
                     .and("proficiency").gte(0.8).lte(1.0));
 
+            query.fields().include("wordId");
             List<Document> learningProgressList = mongoTemplate.find(query, Document.class, "word_learning_progress");
 
             // 提取wordId列表
@@ -457,10 +604,7 @@ public class WordService {
             }
 
             // 查询单词详情
-            Query wordQuery = new Query(Criteria.where("_id").in(wordIds));
-            List<Document> wordDocuments = mongoTemplate.find(wordQuery, Document.class, "words");
-
-            return convertDocumentsToMaps(wordDocuments);
+            return findWordsByObjectIds(wordIds);
         } catch (Exception e) {
             log.error("Error getting familiar words from book: ", e);
             return new ArrayList<>();
@@ -470,13 +614,14 @@ public class WordService {
     /**
      * 获取词书中未学习的单词（proficiency = 0）
      */
-    public List<Map<String, Object>> getUnlearnedWordsFromBook(String userId, String bookId) {
+    public List<Words> getUnlearnedWordsFromBook(String userId, String bookId) {
         try {
             // 查询学习进度
             Query query = new Query(Criteria.where("userId").is(userId)
                     .and("bookId").is(bookId)
                     .and("proficiency").is(0.0));
 
+            query.fields().include("wordId");
             List<Document> learningProgressList = mongoTemplate.find(query, Document.class, "word_learning_progress");
 
             // 提取wordId列表
@@ -491,10 +636,7 @@ public class WordService {
             }
 
             // 查询单词详情
-            Query wordQuery = new Query(Criteria.where("_id").in(wordIds));
-            List<Document> wordDocuments = mongoTemplate.find(wordQuery, Document.class, "words");
-
-            return convertDocumentsToMaps(wordDocuments);
+            return findWordsByObjectIds(wordIds);
         } catch (Exception e) {
             log.error("Error getting unlearned words from book: ", e);
             return new ArrayList<>();
@@ -0,0 +1,170 @@
+package com.tongji.wordtrail.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.tongji.wordtrail.model.Words;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 词书导出：按批次从 Mongo 游标读取单词并直接写入响应流，内存占用与词书大小无关
+ */
+@Service
+@Slf4j
+public class WordbookExportService {
+
+    // 每批查询的单词ID数量
+    private static final int EXPORT_BATCH_SIZE = 500;
+    // CSV 列与批量导入支持的列一致，导出的文件可以直接再导入
+    private static final String[] CSV_COLUMNS = {"word", "language", "difficulty", "synonyms", "antonyms", "tags"};
+    private static final String[] EXPORT_FIELDS = {
+            "word", "language", "difficulty", "synonyms", "antonyms", "tags", "phonetics", "partOfSpeechList"
+    };
+
+    private final MongoTemplate mongoTemplate;
+    private final WordbookIndexService wordbookIndexService;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public WordbookExportService(MongoTemplate mongoTemplate, WordbookIndexService wordbookIndexService,
+                                 ObjectMapper objectMapper) {
+        this.mongoTemplate = mongoTemplate;
+        this.wordbookIndexService = wordbookIndexService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 导出词书中的单词
+     * @param bookId 词书ID（系统词书或用户词书）
+     * @param format "jsonl" 或 "csv"
+     * @param gzip 是否 gzip 压缩
+     * @return 写出导出内容的响应体
+     * @throws IllegalArgumentException 格式不支持或词书不存在（在开始写出之前抛出）
+     */
+    public StreamingResponseBody export(ObjectId bookId, String format, boolean gzip) {
+        boolean csv = "csv".equalsIgnoreCase(format);
+        if (!csv && !"jsonl".equalsIgnoreCase(format)) {
+            throw new IllegalArgumentException("Unsupported format: " + format);
+        }
+        WordbookIndexService.BookWords bookWords = wordbookIndexService.getBookWords(bookId);
+
+        return outputStream -> {
+            OutputStream target = gzip ? new GZIPOutputStream(outputStream) : outputStream;
+            Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8));
+            if (csv) {
+                writer.write(String.join(",", CSV_COLUMNS));
+                writer.write('\n');
+            }
+
+            for (int start = 0; start < bookWords.size(); start += EXPORT_BATCH_SIZE) {
+                int end = Math.min(start + EXPORT_BATCH_SIZE, bookWords.size());
+                writeBatch(bookWords, start, end, csv, writer);
+            }
+
+            writer.flush();
+            if (gzip) {
+                ((GZIPOutputStream) target).finish();
+            }
+            log.info("Exported {} words from wordbook {}", bookWords.size(), bookId);
+        };
+    }
+
+    /**
+     * 导出文件名，例如 wordbook-xxx.jsonl.gz
+     */
+    public String fileName(ObjectId bookId, String format, boolean gzip) {
+        return "wordbook-" + bookId.toHexString() + "." + format.toLowerCase() + (gzip ? ".gz" : "");
+    }
+
+    public MediaType contentType(String format, boolean gzip) {
+        if (gzip) {
+            return MediaType.parseMediaType("application/gzip");
+        }
+        return "csv".equalsIgnoreCase(format)
+                ? MediaType.parseMediaType("text/csv;charset=UTF-8")
+                : MediaType.parseMediaType("application/x-ndjson;charset=UTF-8");
+    }
+
+    /**
+     * 写出词书中 [start, end) 位置的单词，按词书中的顺序输出
+     */
+    private void writeBatch(WordbookIndexService.BookWords bookWords, int start, int end, boolean csv, Writer writer)
+            throws IOException {
+        List<ObjectId> ids = new ArrayList<>(end - start);
+        for (int i = start; i < end; i++) {
+            ids.add(bookWords.get(i));
+        }
+
+        Query query = new Query(Criteria.where("_id").in(ids));
+        query.fields().include(EXPORT_FIELDS);
+        Map<ObjectId, Words> batch = new HashMap<>(ids.size() * 4 / 3 + 1);
+        try (CloseableIterator<Words> words = mongoTemplate.stream(query, Words.class)) {
+            while (words.hasNext()) {
+                Words word = words.next();
+                batch.put(word.getId(), word);
+            }
+        }
+
+        for (ObjectId id : ids) {
+            Words word = batch.get(id);
+            if (word == null) {
+                continue;
+            }
+            if (csv) {
+                writeCsvRow(word, writer);
+            } else {
+                // 批量导入不接受 id，导出时去掉，导出的文件可以直接再导入
+                ObjectNode node = objectMapper.valueToTree(word);
+                node.remove("id");
+                writer.write(objectMapper.writeValueAsString(node));
+                writer.write('\n');
+            }
+        }
+    }
+
+    private void writeCsvRow(Words word, Writer writer) throws IOException {
+        writer.write(csvField(word.getWord()));
+        writer.write(',');
+        writer.write(csvField(word.getLanguage()));
+        writer.write(',');
+        writer.write(String.valueOf(word.getDifficulty()));
+        writer.write(',');
+        writer.write(csvField(joinList(word.getSynonyms())));
+        writer.write(',');
+        writer.write(csvField(joinList(word.getAntonyms())));
+        writer.write(',');
+        writer.write(csvField(joinList(word.getTags())));
+        writer.write('\n');
+    }
+
+    private static String joinList(List<String> values) {
+        return values == null ? "" : String.join("|", values);
+    }
+
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
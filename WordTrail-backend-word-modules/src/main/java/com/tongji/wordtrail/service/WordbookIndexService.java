@@ -0,0 +1,164 @@
+package com.tongji.wordtrail.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 词书单词索引：在内存中缓存每本词书的单词ID，避免每次请求都重新加载整本词书
+ * 词书的单词发生变化时，由 SystemWordbookService / UserWordbookService 调用 invalidate 失效
+ */
+@Service
+@Slf4j
+public class WordbookIndexService {
+
+    private static final String SYSTEM_WORDBOOKS = "system_wordbooks";
+    private static final String USER_WORDBOOKS = "user_wordbooks";
+
+    private final MongoTemplate mongoTemplate;
+    private final Map<ObjectId, BookWords> index = new ConcurrentHashMap<>();
+    // 每次失效时递增，加载过程中发生过失效的结果不保留在索引中，避免旧数据覆盖失效
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @Autowired
+    public WordbookIndexService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * 获取词书的单词索引，未命中时从数据库加载（只投影 words 字段）
+     * @param bookId 词书ID（系统词书或用户词书）
+     * @return 词书单词索引
+     * @throws IllegalArgumentException 词书不存在
+     */
+    public BookWords getBookWords(ObjectId bookId) {
+        BookWords cached = index.get(bookId);
+        if (cached != null) {
+            return cached;
+        }
+
+        long version = invalidations.get();
+        BookWords loaded = load(bookId);
+        index.put(bookId, loaded);
+        // 写入后再检查一次：失效可能发生在加载期间或检查与写入之间
+        if (invalidations.get() != version) {
+            index.remove(bookId, loaded);
+        }
+        return loaded;
+    }
+
+    /**
+     * 获取词书中所有单词ID（保持词书中的顺序）
+     */
+    public List<ObjectId> getBookWordIds(ObjectId bookId) {
+        return getBookWords(bookId).getWordIds();
+    }
+
+    /**
+     * 词书内容变更后使索引失效
+     */
+    public void invalidate(ObjectId bookId) {
+        if (bookId == null) {
+            return;
+        }
+        invalidations.incrementAndGet();
+        if (index.remove(bookId) != null) {
+            log.debug("Invalidated word index for wordbook {}", bookId);
+        }
+    }
+
+    public void invalidate(String bookId) {
+        if (bookId != null && ObjectId.isValid(bookId)) {
+            invalidate(new ObjectId(bookId));
+        }
+    }
+
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        index.clear();
+    }
+
+    private BookWords load(ObjectId bookId) {
+        Query query = new Query(Criteria.where("_id").is(bookId));
+        query.fields().include("words");
+
+        Document document = mongoTemplate.findOne(query, Document.class, SYSTEM_WORDBOOKS);
+        if (document == null) {
+            document = mongoTemplate.findOne(query, Document.class, USER_WORDBOOKS);
+        }
+        if (document == null) {
+            throw new IllegalArgumentException("Wordbook not found: " + bookId);
+        }
+
+        List<?> rawWords = document.get("words", List.class);
+        return new BookWords(toObjectIds(rawWords));
+    }
+
+    /**
+     * 用户词书中的单词ID可能以字符串形式存储，这里统一转换为 ObjectId，并去除重复项
+     */
+    private ObjectId[] toObjectIds(List<?> rawWords) {
+        if (rawWords == null || rawWords.isEmpty()) {
+            return new ObjectId[0];
+        }
+
+        Set<ObjectId> ids = new LinkedHashSet<>(rawWords.size() * 4 / 3 + 1);
+        for (Object raw : rawWords) {
+            if (raw instanceof ObjectId) {
+                ids.add((ObjectId) raw);
+            } else if (raw != null && ObjectId.isValid(raw.toString())) {
+                ids.add(new ObjectId(raw.toString()));
+            }
+        }
+        return ids.toArray(new ObjectId[0]);
+    }
+
+    /**
+     * 单本词书的单词索引：按词书顺序保存的ID数组 + ID到位置的哈希索引
+     */
+    public static class BookWords {
+        private final ObjectId[] wordIds;
+        private final Map<ObjectId, Integer> positions;
+
+        BookWords(ObjectId[] wordIds) {
+            this.wordIds = wordIds;
+            this.positions = new HashMap<>(wordIds.length * 4 / 3 + 1);
+            for (int i = 0; i < wordIds.length; i++) {
+                positions.put(wordIds[i], i);
+            }
+        }
+
+        public int size() {
+            return wordIds.length;
+        }
+
+        public ObjectId get(int position) {
+            return wordIds[position];
+        }
+
+        public boolean contains(ObjectId wordId) {
+            return positions.containsKey(wordId);
+        }
+
+        /**
+         * @return 单词在词书中的位置，不存在时返回 -1
+         */
+        public int positionOf(ObjectId wordId) {
+            Integer position = positions.get(wordId);
+            return position != null ? position : -1;
+        }
+
+        public List<ObjectId> getWordIds() {
+            return Collections.unmodifiableList(Arrays.asList(wordIds));
+        }
+    }
+}
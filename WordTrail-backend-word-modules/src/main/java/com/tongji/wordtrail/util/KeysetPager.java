@@ -0,0 +1,139 @@
+package com.tongji.wordtrail.util;
+
+import com.tongji.wordtrail.dto.CursorPage;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 基于 _id 的游标（keyset）分页工具
+ * 用 "_id > 游标"（或 "_id < 游标"）代替 skip，任意深度的分页代价都和第一页相同
+ * applyByTime 用于按时间字段排序的列表，游标为 (时间, _id)
+ */
+public final class KeysetPager {
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private KeysetPager() {
+    }
+
+    /**
+     * 在查询上加上游标条件、按 _id 排序，并多取一条用于判断是否还有下一页
+     * @param query 已包含过滤条件的查询
+     * @param cursor 上一页返回的 nextCursor，第一页为空
+     * @param size 每页数量
+     * @param direction ASC 为从旧到新，DESC 为从新到旧
+     * @throws IllegalArgumentException 游标或分页大小不合法
+     */
+    public static Query apply(Query query, String cursor, int size, Sort.Direction direction) {
+        checkSize(size);
+        if (cursor != null && !cursor.isEmpty()) {
+            ObjectId last = decode(cursor);
+            query.addCriteria(direction.isAscending()
+                    ? Criteria.where("_id").gt(last)
+                    : Criteria.where("_id").lt(last));
+        }
+        return query.with(Sort.by(direction, "_id")).limit(size + 1);
+    }
+
+    /**
+     * 按时间字段分页，时间相同时按 _id 排序，需要 {timeField, _id} 上的索引
+     * @param cursor 上一页返回的 nextCursor（由 encodeTime 生成），第一页为空
+     * @param direction ASC 为从旧到新，DESC 为从新到旧
+     * @throws IllegalArgumentException 游标或分页大小不合法
+     */
+    public static Query applyByTime(Query query, String timeField, String cursor, int size, Sort.Direction direction) {
+        checkSize(size);
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] parts = decodeString(cursor).split("\\|", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            LocalDateTime time;
+            try {
+                time = LocalDateTime.parse(parts[0]);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            ObjectId id = toObjectId(parts[1], cursor);
+            query.addCriteria(direction.isAscending()
+                    ? new Criteria().orOperator(
+                            Criteria.where(timeField).gt(time),
+                            Criteria.where(timeField).is(time).and("_id").gt(id))
+                    : new Criteria().orOperator(
+                            Criteria.where(timeField).lt(time),
+                            Criteria.where(timeField).is(time).and("_id").lt(id)));
+        }
+        return query.with(Sort.by(direction, timeField, "_id")).limit(size + 1);
+    }
+
+    /**
+     * 将 apply 之后查询出的结果转换为一页
+     * @param rows 查询结果（最多 size + 1 条）
+     * @param idOf 取出每条结果的 _id
+     * @param mapper 转换为返回给客户端的对象
+     */
+    public static <R, T> CursorPage<T> toPage(List<R> rows, int size, Function<R, ObjectId> idOf, Function<R, T> mapper) {
+        return toCursorPage(rows, size, row -> encode(idOf.apply(row)), mapper);
+    }
+
+    /**
+     * 同 toPage，nextCursor 由 cursorOf 根据本页最后一条结果生成
+     */
+    public static <R, T> CursorPage<T> toCursorPage(List<R> rows, int size, Function<R, String> cursorOf, Function<R, T> mapper) {
+        CursorPage<T> page = new CursorPage<>();
+        int count = Math.min(rows.size(), size);
+        for (int i = 0; i < count; i++) {
+            page.getItems().add(mapper.apply(rows.get(i)));
+        }
+        if (rows.size() > size) {
+            page.setNextCursor(cursorOf.apply(rows.get(size - 1)));
+        }
+        return page;
+    }
+
+    public static String encode(ObjectId id) {
+        return encodeString(id.toHexString());
+    }
+
+    public static ObjectId decode(String cursor) {
+        return toObjectId(decodeString(cursor), cursor);
+    }
+
+    public static String encodeTime(LocalDateTime time, ObjectId id) {
+        return encodeString(time + "|" + id.toHexString());
+    }
+
+    private static void checkSize(int size) {
+        if (size <= 0 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
+
+    private static String encodeString(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodeString(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    private static ObjectId toObjectId(String hex, String cursor) {
+        if (!ObjectId.isValid(hex)) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        return new ObjectId(hex);
+    }
+}
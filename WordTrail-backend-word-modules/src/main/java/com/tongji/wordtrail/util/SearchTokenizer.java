@@ -0,0 +1,85 @@
+package com.tongji.wordtrail.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 全文检索分词
+ * MongoDB 文本索引不会切分中文，连续的汉字会被当作一个词，因此在写入时预先分词：
+ * 英文和数字按单词切分并转为小写，汉字切分为单字和相邻两字（bigram），用空格连接后写入文本索引字段
+ * 查询时英文单词保持完整，汉字串切分为 bigram（单个汉字保持单字），所有词都匹配的文档才是结果
+ */
+public final class SearchTokenizer {
+
+    private SearchTokenizer() {
+    }
+
+    /**
+     * @return 写入文本索引字段的词，用空格连接；text 为空时返回空字符串
+     */
+    public static String indexTerms(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (String run : runs(text)) {
+            if (!isCjk(run.charAt(0))) {
+                terms.add(run);
+                continue;
+            }
+            for (int i = 0; i < run.length(); i++) {
+                terms.add(run.substring(i, i + 1));
+                if (i + 1 < run.length()) {
+                    terms.add(run.substring(i, i + 2));
+                }
+            }
+        }
+        return String.join(" ", terms);
+    }
+
+    /**
+     * @return 查询关键词切分出的词，关键词中没有可检索的字符时返回空列表
+     */
+    public static List<String> queryTerms(String keyword) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (String run : runs(keyword)) {
+            if (!isCjk(run.charAt(0)) || run.length() == 1) {
+                terms.add(run);
+                continue;
+            }
+            for (int i = 0; i + 1 < run.length(); i++) {
+                terms.add(run.substring(i, i + 2));
+            }
+        }
+        return new ArrayList<>(terms);
+    }
+
+    // 把文本切分为连续的汉字串或连续的字母数字串，其他字符作为分隔符
+    private static List<String> runs(String text) {
+        List<String> runs = new ArrayList<>();
+        if (text == null) {
+            return runs;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        boolean cjk = false;
+        for (int i = 0; i <= lower.length(); i++) {
+            char c = i < lower.length() ? lower.charAt(i) : ' ';
+            boolean isCjk = isCjk(c);
+            boolean isWord = isCjk || Character.isLetterOrDigit(c);
+            if (start >= 0 && (!isWord || isCjk != cjk)) {
+                runs.add(lower.substring(start, i));
+                start = -1;
+            }
+            if (isWord && start < 0) {
+                start = i;
+                cjk = isCjk;
+            }
+        }
+        return runs;
+    }
+
+    private static boolean isCjk(char c) {
+        return Character.UnicodeScript.of(c) == Character.UnicodeScript.HAN;
+    }
+}
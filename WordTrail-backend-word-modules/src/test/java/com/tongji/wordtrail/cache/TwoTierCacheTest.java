@@ -0,0 +1,92 @@
+package com.tongji.wordtrail.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("两级缓存测试")
+class TwoTierCacheTest {
+
+    // 两个 manager 共享同一个远端替身，模拟两个应用实例
+    private TwoTierCache<String> nodeA;
+    private TwoTierCache<String> nodeB;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        InMemoryRemoteCache remote = new InMemoryRemoteCache();
+        CacheCodec<String> codec = CacheCodec.json(new ObjectMapper(), String.class);
+        nodeA = new TwoTierCacheManager(remote, 60, 600).create("test", 100, codec);
+        nodeB = new TwoTierCacheManager(remote, 60, 600).create("test", 100, codec);
+    }
+
+    private String load(String key) {
+        loads.incrementAndGet();
+        return "value-" + key + "-" + loads.get();
+    }
+
+    @Test
+    @DisplayName("其他实例加载过的值 - 从远端缓存读取，不再查询数据库")
+    void 远端命中() {
+        assertEquals("value-k-1", nodeA.get("k", this::load));
+        assertEquals("value-k-1", nodeB.get("k", this::load));
+
+        assertEquals(1, loads.get());
+        assertEquals(1L, nodeB.stats().get("remoteHits"));
+    }
+
+    @Test
+    @DisplayName("一个实例失效 - 其他实例的近端缓存也被清理")
+    void 跨实例失效() {
+        nodeA.get("k", this::load);
+        nodeB.get("k", this::load);
+
+        nodeA.invalidate("k");
+
+        assertEquals(0, nodeB.size());
+        assertEquals("value-k-2", nodeB.get("k", this::load));
+        assertEquals("value-k-2", nodeA.get("k", this::load));
+    }
+
+    @Test
+    @DisplayName("不存在的值 - 不缓存")
+    void 不缓存空值() {
+        assertNull(nodeA.get("missing", key -> null));
+        assertNull(nodeA.get("missing", key -> null));
+        assertEquals(2L, nodeA.stats().get("misses"));
+        assertEquals(0, nodeA.size());
+    }
+
+    @Test
+    @DisplayName("写入远端前发生失效 - 撤回写入的旧值")
+    void 写入远端时失效() {
+        AtomicReference<Runnable> beforePut = new AtomicReference<>();
+        InMemoryRemoteCache remote = new InMemoryRemoteCache() {
+            @Override
+            public void put(String key, String value, long ttlMillis) {
+                Runnable hook = beforePut.getAndSet(null);
+                if (hook != null) {
+                    hook.run();
+                }
+                super.put(key, value, ttlMillis);
+            }
+        };
+        CacheCodec<String> codec = CacheCodec.json(new ObjectMapper(), String.class);
+        TwoTierCache<String> writer = new TwoTierCacheManager(remote, 60, 600).create("test", 100, codec);
+        TwoTierCache<String> other = new TwoTierCacheManager(remote, 60, 600).create("test", 100, codec);
+
+        // 另一个实例在本实例检查版本之后、写入远端之前使键失效
+        beforePut.set(() -> other.invalidate("k"));
+        assertEquals("value-k-1", writer.get("k", this::load));
+
+        assertNull(remote.get("test:k"));
+        assertEquals(0, writer.size());
+        assertEquals("value-k-2", other.get("k", this::load));
+    }
+}
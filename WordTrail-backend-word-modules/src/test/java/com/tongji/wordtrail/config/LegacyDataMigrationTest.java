@@ -0,0 +1,93 @@
+package com.tongji.wordtrail.config;
+
+import com.tongji.wordtrail.model.Post;
+import com.tongji.wordtrail.model.UserCommunityStats;
+import com.tongji.wordtrail.model.Vote;
+import com.tongji.wordtrail.service.CommunityStatsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@DisplayName("旧数据迁移测试")
+class LegacyDataMigrationTest {
+
+    @Autowired
+    private LegacyDataMigration legacyDataMigration;
+
+    @Autowired
+    private CommunityStatsService communityStatsService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private String authorId;
+    private String votedPostId;
+    private String unvotedPostId;
+
+    @BeforeEach
+    void setUp() {
+        authorId = "migration-test-" + UUID.randomUUID();
+        votedPostId = savePost(5, 0);
+        unvotedPostId = savePost(2, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        Query byPost = new Query(Criteria.where("postId").in(votedPostId, unvotedPostId));
+        mongoTemplate.remove(byPost, Vote.class);
+        mongoTemplate.remove(new Query(Criteria.where("userId").is(authorId)), Post.class);
+        mongoTemplate.remove(new Query(Criteria.where("_id").is(authorId)), UserCommunityStats.class);
+    }
+
+    private String savePost(int like, int dislike) {
+        Post post = new Post("title", "content", LocalDateTime.now(), LocalDateTime.now(), authorId,
+                Collections.emptyList(), 0, 0, 1, null);
+        post.setLike(like);
+        post.setDislike(dislike);
+        post.setVoteCount(like - dislike);
+        return mongoTemplate.save(post).getId();
+    }
+
+    @Test
+    @DisplayName("迁移投票 - 删除取消投票的记录并按剩余投票重新计算帖子计数")
+    void 迁移投票() {
+        mongoTemplate.insert(new Vote(LocalDateTime.now(), "voter-1", "true", votedPostId));
+        mongoTemplate.insert(new Vote(LocalDateTime.now(), "voter-2", null, votedPostId));
+        mongoTemplate.insert(new Vote(LocalDateTime.now(), "voter-3", "false", votedPostId));
+
+        long removed = legacyDataMigration.migrateVotes(Arrays.asList(votedPostId, unvotedPostId));
+
+        assertEquals(1, removed);
+        assertEquals(2, mongoTemplate.count(new Query(Criteria.where("postId").is(votedPostId)), Vote.class));
+
+        Post voted = mongoTemplate.findById(votedPostId, Post.class);
+        assertEquals(1, voted.getLike());
+        assertEquals(1, voted.getDislike());
+        assertEquals(0, voted.getVoteCount());
+
+        // 没有任何投票的帖子计数归零
+        Post unvoted = mongoTemplate.findById(unvotedPostId, Post.class);
+        assertEquals(0, unvoted.getLike());
+        assertEquals(0, unvoted.getDislike());
+        assertEquals(0, unvoted.getVoteCount());
+
+        UserCommunityStats stats = communityStatsService.getStats(Collections.singletonList(authorId)).get(authorId);
+        assertNotNull(stats);
+        assertEquals(1, stats.getLikeCount());
+        assertEquals(1, stats.getDislikeCount());
+    }
+}
@@ -0,0 +1,109 @@
+package com.tongji.wordtrail.config;
+
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.tongji.wordtrail.model.WordLearningProgress;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.Date;
+import java.util.List;
+
+import static com.mongodb.client.model.Filters.*;
+import static com.mongodb.client.model.Sorts.ascending;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@DisplayName("MongoDB 索引测试")
+class MongoIndexInitializerTest {
+
+    @Autowired
+    private MongoIndexInitializer indexInitializer;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private static final String TEST_USER_ID = "test-index-user";
+
+    @BeforeEach
+    void setUp() {
+        indexInitializer.ensureIndexes(WordLearningProgress.class);
+    }
+
+    @Test
+    @DisplayName("声明的索引都已创建")
+    void 声明的索引都已创建() {
+        assertTrue(indexInitializer.findMissingIndexes(WordLearningProgress.class).isEmpty());
+    }
+
+    @Test
+    @DisplayName("按用户和单词查询进度 - 不做全表扫描")
+    void 按用户和单词查询使用索引() {
+        assertNoCollectionScan(and(eq("userId", TEST_USER_ID), eq("wordId", new ObjectId())));
+    }
+
+    @Test
+    @DisplayName("查询今日待复习单词 - 不做全表扫描")
+    void 待复习查询使用索引() {
+        Date now = new Date();
+        assertNoCollectionScan(and(eq("userId", TEST_USER_ID),
+                gte("nextReviewTime", new Date(now.getTime() - 24L * 60 * 60 * 1000)),
+                lt("nextReviewTime", now)));
+    }
+
+    @Test
+    @DisplayName("分页读取复习队列 - 按索引顺序返回，不做全表扫描和内存排序")
+    void 复习队列使用索引排序() {
+        Date now = new Date();
+        Document winningPlan = winningPlan(progress()
+                .find(and(eq("userId", TEST_USER_ID), lt("nextReviewTime", now),
+                        not(gte("lastReviewTime", new Date(now.getTime() - 24L * 60 * 60 * 1000)))))
+                .sort(ascending("nextReviewTime", "proficiency", "_id"))
+                .limit(51));
+        assertFalse(containsStage(winningPlan, "COLLSCAN"), "Query uses collection scan: " + winningPlan.toJson());
+        assertFalse(containsStage(winningPlan, "SORT"), "Query sorts in memory: " + winningPlan.toJson());
+    }
+
+    @Test
+    @DisplayName("打卡统计当天复习 - 不做全表扫描")
+    void 打卡统计查询使用索引() {
+        Date now = new Date();
+        assertNoCollectionScan(and(eq("userId", TEST_USER_ID),
+                elemMatch("reviewHistory", gte("reviewTime", new Date(now.getTime() - 24L * 60 * 60 * 1000)))));
+        assertNoCollectionScan(and(eq("userId", TEST_USER_ID), gte("firstLearnTime", now)));
+    }
+
+    private void assertNoCollectionScan(Bson filter) {
+        Document winningPlan = winningPlan(progress().find(filter));
+        assertFalse(containsStage(winningPlan, "COLLSCAN"), "Query uses collection scan: " + winningPlan.toJson());
+    }
+
+    private MongoCollection<Document> progress() {
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(WordLearningProgress.class));
+    }
+
+    private Document winningPlan(FindIterable<Document> find) {
+        return find.explain().get("queryPlanner", Document.class).get("winningPlan", Document.class);
+    }
+
+    private boolean containsStage(Object plan, String stage) {
+        if (plan instanceof Document) {
+            Document document = (Document) plan;
+            if (stage.equals(document.get("stage"))) {
+                return true;
+            }
+            return document.values().stream().anyMatch(value -> containsStage(value, stage));
+        }
+        if (plan instanceof List) {
+            return ((List<?>) plan).stream().anyMatch(value -> containsStage(value, stage));
+        }
+        return false;
+    }
+}
@@ -4,13 +4,22 @@ import org.bson.types.ObjectId;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import com.jayway.jsonpath.JsonPath;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest
@@ -26,6 +35,7 @@ class WordControllerTest {
     private static final ObjectId VALID_WORD_ID = new ObjectId("67fa0e2c2c0bf3230b6d9f95");
     private static final ObjectId NON_EXISTENT_WORD_ID = new ObjectId("507f1f77bcf86cd799439999");
     private static final String INVALID_WORD_ID = "abc";
+    private static final ObjectId VALID_BOOK_ID = new ObjectId("67eb986cc015ca11e33b4e86");
 
     @Nested
     @DisplayName("获取单个单词的详细信息")
@@ -65,4 +75,125 @@ class WordControllerTest {
                     .andExpect(status().isOk()); // 修正：实际返回200，匹配到了获取单词列表的接口
         }
     }
+
+    @Nested
+    @DisplayName("生成混淆选项")
+    class ConfusionOptionsTests {
+
+        @Test
+        @DisplayName("正常请求 - 返回不包含目标单词且不重复的4个选项")
+        void 正常请求() throws Exception {
+            mockMvc.perform(get("/api/v1/words/" + VALID_WORD_ID.toHexString() + "/confusion-options"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(4))
+                    .andExpect(jsonPath("$[?(@ == '" + VALID_WORD_ID.toHexString() + "')]").isEmpty());
+        }
+
+        @Test
+        @DisplayName("wordId不存在 - 返回400")
+        void wordId不存在() throws Exception {
+            mockMvc.perform(get("/api/v1/words/" + NON_EXISTENT_WORD_ID.toHexString() + "/confusion-options"))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    @Nested
+    @DisplayName("批量生成测验")
+    class QuizTests {
+
+        @Test
+        @DisplayName("按单词ID生成 - 返回目标单词和混淆选项")
+        void 按单词ID生成() throws Exception {
+            mockMvc.perform(post("/api/v1/words/quiz")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"wordIds\": [\"" + VALID_WORD_ID.toHexString() + "\"]}"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].word.id").value(VALID_WORD_ID.toHexString()))
+                    .andExpect(jsonPath("$[0].distractors.length()").value(4));
+        }
+
+        @Test
+        @DisplayName("按词书生成 - 不同题目之间不重复使用混淆选项")
+        void 按词书生成() throws Exception {
+            String body = mockMvc.perform(post("/api/v1/words/quiz")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"bookId\": \"" + VALID_BOOK_ID.toHexString() + "\", \"count\": 5}"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+
+            List<String> distractorIds = JsonPath.read(body, "$[*].distractors[*].id");
+            assertEquals(distractorIds.size(), new HashSet<>(distractorIds).size());
+
+            // 任何题目的正确答案都不会出现在其他题目的选项中
+            List<String> targetIds = JsonPath.read(body, "$[*].word.id");
+            assertTrue(Collections.disjoint(targetIds, distractorIds));
+        }
+
+        @Test
+        @DisplayName("缺少单词ID和词书ID - 返回400")
+        void 缺少参数() throws Exception {
+            mockMvc.perform(post("/api/v1/words/quiz")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{}"))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    @Nested
+    @DisplayName("游标分页获取单词")
+    class CursorPaginationTests {
+
+        @Test
+        @DisplayName("连续翻页 - 两页之间没有重复单词")
+        void 连续翻页() throws Exception {
+            String first = mockMvc.perform(get("/api/v1/words/cursor").param("size", "5"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.items.length()").value(5))
+                    .andExpect(jsonPath("$.nextCursor").exists())
+                    .andExpect(jsonPath("$.total").doesNotExist())
+                    .andReturn().getResponse().getContentAsString();
+            String cursor = JsonPath.read(first, "$.nextCursor");
+            List<String> firstIds = JsonPath.read(first, "$.items[*].id");
+
+            String second = mockMvc.perform(get("/api/v1/words/cursor")
+                            .param("size", "5")
+                            .param("cursor", cursor)
+                            .param("includeTotal", "true"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.total").isNumber())
+                    .andReturn().getResponse().getContentAsString();
+            List<String> secondIds = JsonPath.read(second, "$.items[*].id");
+
+            HashSet<String> all = new HashSet<>(firstIds);
+            all.addAll(secondIds);
+            assertEquals(firstIds.size() + secondIds.size(), all.size());
+        }
+
+        @Test
+        @DisplayName("游标非法 - 返回400")
+        void 游标非法() throws Exception {
+            mockMvc.perform(get("/api/v1/words/cursor").param("cursor", "not-a-cursor"))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    @Nested
+    @DisplayName("分页获取单词")
+    class PaginationTests {
+
+        @Test
+        @DisplayName("后面的页 - 总数与第一页相同，不受分页参数影响")
+        void 总数不受分页影响() throws Exception {
+            String first = mockMvc.perform(get("/api/v1/words/page").param("page", "0").param("size", "10"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            String later = mockMvc.perform(get("/api/v1/words/page").param("page", "3").param("size", "10"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+
+            Number firstTotal = JsonPath.read(first, "$.totalElements");
+            Number laterTotal = JsonPath.read(later, "$.totalElements");
+            assertEquals(firstTotal.longValue(), laterTotal.longValue());
+        }
+    }
 }
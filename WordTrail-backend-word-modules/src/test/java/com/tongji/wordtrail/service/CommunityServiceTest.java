@@ -0,0 +1,176 @@
+package com.tongji.wordtrail.service;
+
+import com.tongji.wordtrail.dto.CommentRequest;
+import com.tongji.wordtrail.dto.CursorPage;
+import com.tongji.wordtrail.dto.PostResponse;
+import com.tongji.wordtrail.model.Comment;
+import com.tongji.wordtrail.model.Post;
+import com.tongji.wordtrail.model.UserCommunityStats;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@DisplayName("社区服务测试")
+class CommunityServiceTest {
+
+    private static final int POST_COUNT = 25;
+
+    @Autowired
+    private CommunityService communityService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private String userId;
+    // 按发布时间从新到旧排列的帖子ID
+    private final List<String> newestFirst = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        userId = "feed-test-" + UUID.randomUUID();
+        LocalDateTime base = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        List<Post> saved = new ArrayList<>();
+        for (int i = 0; i < POST_COUNT; i++) {
+            // 每三条帖子的发布时间相同，验证时间相同时按 _id 区分
+            LocalDateTime createdAt = base.minusSeconds(i / 3);
+            saved.add(mongoTemplate.save(new Post("title " + i, "content", createdAt, createdAt, userId,
+                    Collections.emptyList(), 0, 0, 0, null)));
+        }
+        saved.sort((a, b) -> {
+            int byTime = b.getCreatedAt().compareTo(a.getCreatedAt());
+            return byTime != 0 ? byTime : b.getId().compareTo(a.getId());
+        });
+        saved.forEach(post -> newestFirst.add(post.getId()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        mongoTemplate.remove(new Query(Criteria.where("userId").is(userId)), Post.class);
+        mongoTemplate.remove(new Query(Criteria.where("userId").is(userId)), Comment.class);
+        mongoTemplate.remove(new Query(Criteria.where("_id").is(userId)), UserCommunityStats.class);
+    }
+
+    @Test
+    @DisplayName("用户帖子流 - 逐页读取，按时间从新到旧且不重复不遗漏")
+    void 用户帖子流游标分页() {
+        List<String> ids = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPage<PostResponse> page = communityService.getUserFeed(userId, cursor, 10);
+            page.getItems().forEach(post -> ids.add(post.getId()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(newestFirst, ids);
+    }
+
+    @Test
+    @DisplayName("删除帖子后继续翻页 - 不受已删除帖子影响")
+    void 删除帖子后继续翻页() {
+        CursorPage<PostResponse> first = communityService.getUserFeed(userId, null, 10);
+        communityService.deletePostById(newestFirst.get(0));
+
+        CursorPage<PostResponse> second = communityService.getUserFeed(userId, first.getNextCursor(), 10);
+
+        assertEquals(newestFirst.get(10), second.getItems().get(0).getId());
+    }
+
+    @Test
+    @DisplayName("非法游标 - 抛出 IllegalArgumentException")
+    void 非法游标() {
+        assertThrows(IllegalArgumentException.class, () -> communityService.getUserFeed(userId, "not-a-cursor", 10));
+        assertThrows(IllegalArgumentException.class, () -> communityService.getUserFeed(userId, null, 0));
+    }
+
+    private void addComment(String postId, String content) {
+        CommentRequest request = new CommentRequest();
+        request.setPostId(postId);
+        request.setUserId(userId);
+        request.setContent(content);
+        communityService.addComment(request);
+    }
+
+    @Test
+    @DisplayName("添加和删除评论 - 帖子评论数原子增减")
+    void 评论数增减() {
+        String postId = newestFirst.get(0);
+        addComment(postId, "first");
+        addComment(postId, "second");
+        assertEquals(2, mongoTemplate.findById(postId, Post.class).getCommentCount());
+
+        Comment comment = communityService.getCommentList(postId).get(0);
+        communityService.deleteComment(comment.getId());
+
+        assertEquals(1, mongoTemplate.findById(postId, Post.class).getCommentCount());
+    }
+
+    @Test
+    @DisplayName("评论分页 - 按发布时间从旧到新逐页读取")
+    void 评论游标分页() {
+        String postId = newestFirst.get(0);
+        for (int i = 0; i < 7; i++) {
+            addComment(postId, "comment " + i);
+        }
+
+        List<String> contents = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<Comment> page = communityService.getCommentPage(postId, cursor, 3);
+            assertTrue(page.getItems().size() <= 3);
+            page.getItems().forEach(comment -> contents.add(comment.getContent()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            expected.add("comment " + i);
+        }
+        assertEquals(expected, contents);
+    }
+
+    @Test
+    @DisplayName("举报和设置帖子状态 - 只更新状态字段，不覆盖投票和评论计数")
+    void 设置帖子状态不覆盖计数() {
+        String postId = newestFirst.get(0);
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(postId)),
+                new Update().inc("like", 3).inc("voteCount", 3).inc("commentCount", 2), Post.class);
+
+        communityService.reportPost(postId, "spam");
+        Post reported = mongoTemplate.findById(postId, Post.class);
+        assertEquals("reported", reported.getState());
+        assertEquals("spam", reported.getMessage());
+        assertEquals(3, reported.getLike());
+        assertEquals(3, reported.getVoteCount());
+        assertEquals(2, reported.getCommentCount());
+
+        communityService.setState(postId, "normal");
+        Post restored = mongoTemplate.findById(postId, Post.class);
+        assertEquals("normal", restored.getState());
+        assertEquals(3, restored.getLike());
+
+        assertThrows(NoSuchElementException.class,
+                () -> communityService.setState(new ObjectId().toHexString(), "normal"));
+    }
+}
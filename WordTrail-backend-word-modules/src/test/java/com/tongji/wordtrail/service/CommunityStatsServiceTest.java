@@ -0,0 +1,128 @@
+package com.tongji.wordtrail.service;
+
+import com.tongji.wordtrail.model.Comment;
+import com.tongji.wordtrail.model.Post;
+import com.tongji.wordtrail.model.UserCommunityStats;
+import com.tongji.wordtrail.model.UserState;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@DisplayName("用户社区统计测试")
+class CommunityStatsServiceTest {
+
+    @Autowired
+    private CommunityStatsService communityStatsService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private String userId;
+
+    private String otherUserId;
+
+    @BeforeEach
+    void setUp() {
+        userId = "stats-test-" + UUID.randomUUID();
+        otherUserId = "stats-test-" + UUID.randomUUID();
+    }
+
+    @AfterEach
+    void tearDown() {
+        mongoTemplate.remove(new Query(Criteria.where("userId").is(userId)), Post.class);
+        mongoTemplate.remove(new Query(Criteria.where("userId").is(userId)), Comment.class);
+        mongoTemplate.remove(new Query(Criteria.where("userId").is(userId)), UserState.class);
+        mongoTemplate.remove(new Query(Criteria.where("_id").in(userId, otherUserId)), UserCommunityStats.class);
+    }
+
+    @Test
+    @DisplayName("增量更新 - 发帖、评论、投票后统计正确")
+    void 增量更新统计() {
+        communityStatsService.postCreated(userId);
+        communityStatsService.postCreated(userId);
+        communityStatsService.commentAdded(userId);
+        communityStatsService.votesChanged(userId, 2, 1);
+        communityStatsService.stateChanged(userId, "banned");
+
+        UserCommunityStats stats = communityStatsService.getStats(Collections.singletonList(userId)).get(userId);
+
+        assertNotNull(stats);
+        assertEquals(2, stats.getPostCount());
+        assertEquals(1, stats.getCommentCount());
+        assertEquals(2, stats.getLikeCount());
+        assertEquals(1, stats.getDislikeCount());
+        assertEquals("banned", stats.getState());
+    }
+
+    @Test
+    @DisplayName("删除帖子 - 扣除帖子数和帖子获得的赞/踩")
+    void 删除帖子扣除统计() {
+        Post post = new Post("title", "content", LocalDateTime.now(), LocalDateTime.now(), userId,
+                Collections.emptyList(), 0, 0, 1, null);
+        post.setLike(3);
+        post.setDislike(1);
+        communityStatsService.postCreated(userId);
+        communityStatsService.votesChanged(userId, 3, 1);
+
+        communityStatsService.postDeleted(post);
+
+        UserCommunityStats stats = communityStatsService.getStats(Collections.singletonList(userId)).get(userId);
+        assertEquals(0, stats.getPostCount());
+        assertEquals(0, stats.getLikeCount());
+        assertEquals(0, stats.getDislikeCount());
+    }
+
+    @Test
+    @DisplayName("重建统计 - 与帖子、评论和最新用户状态一致，且不影响其他用户")
+    void 重建统计() {
+        for (int like : Arrays.asList(1, 4)) {
+            Post post = new Post("title", "content", LocalDateTime.now(), LocalDateTime.now(), userId,
+                    Collections.emptyList(), 0, 0, 1, null);
+            post.setLike(like);
+            mongoTemplate.save(post);
+        }
+        mongoTemplate.save(new Comment("post", "comment", userId, LocalDateTime.now(), LocalDateTime.now(), null));
+        mongoTemplate.save(new UserState(userId, "normal", "first"));
+        mongoTemplate.save(new UserState(userId, "banned", "latest"));
+        communityStatsService.postCreated(otherUserId);
+
+        communityStatsService.rebuild(Arrays.asList(userId, otherUserId));
+
+        Map<String, UserCommunityStats> result = communityStatsService.getStats(Arrays.asList(userId, otherUserId));
+        UserCommunityStats stats = result.get(userId);
+        assertEquals(2, stats.getPostCount());
+        assertEquals(1, stats.getCommentCount());
+        assertEquals(5, stats.getLikeCount());
+        assertEquals(0, stats.getDislikeCount());
+        assertEquals("banned", stats.getState());
+        // otherUserId 没有任何帖子、评论和状态，重建后其统计记录被删除
+        assertFalse(result.containsKey(otherUserId));
+    }
+
+    @Test
+    @DisplayName("重建统计 - 只重建指定用户")
+    void 重建统计只影响指定用户() {
+        communityStatsService.postCreated(otherUserId);
+
+        communityStatsService.rebuild(Collections.singletonList(userId));
+
+        UserCommunityStats other = communityStatsService.getStats(Collections.singletonList(otherUserId)).get(otherUserId);
+        assertNotNull(other);
+        assertEquals(1, other.getPostCount());
+    }
+}
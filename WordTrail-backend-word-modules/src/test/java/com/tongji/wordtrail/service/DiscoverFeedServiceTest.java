@@ -0,0 +1,91 @@
+package com.tongji.wordtrail.service;
+
+import com.tongji.wordtrail.model.Post;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@DisplayName("发现页随机帖子测试")
+class DiscoverFeedServiceTest {
+
+    @Autowired
+    private DiscoverFeedService discoverFeedService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private String userId;
+    private final Set<String> normalIds = new HashSet<>();
+    private final Set<String> excludedIds = new HashSet<>();
+
+    @BeforeEach
+    void setUp() {
+        userId = "discover-test-" + UUID.randomUUID();
+        for (int i = 0; i < 5; i++) {
+            normalIds.add(save("normal").getId());
+        }
+        excludedIds.add(save("deleted").getId());
+        excludedIds.add(save("banned").getId());
+        discoverFeedService.refresh();
+    }
+
+    @AfterEach
+    void tearDown() {
+        mongoTemplate.remove(new Query(Criteria.where("userId").is(userId)), Post.class);
+    }
+
+    private Post save(String state) {
+        Post post = new Post("title", "content", LocalDateTime.now(), LocalDateTime.now(), userId,
+                Collections.emptyList(), 0, 0, 0, null);
+        post.setState(state);
+        return mongoTemplate.save(post);
+    }
+
+    private Set<String> sampleWholePool() {
+        return discoverFeedService.sample(discoverFeedService.poolSize()).stream()
+                .map(Post::getId)
+                .collect(Collectors.toSet());
+    }
+
+    @Test
+    @DisplayName("候选池 - 包含新发布的正常帖子，不包含已删除和已封禁的帖子")
+    void 过滤删除和封禁的帖子() {
+        Set<String> served = sampleWholePool();
+
+        assertTrue(served.containsAll(normalIds));
+        assertTrue(Collections.disjoint(served, excludedIds));
+    }
+
+    @Test
+    @DisplayName("一次取样 - 返回不重复的帖子")
+    void 取样不重复() {
+        List<Post> posts = discoverFeedService.sample(10);
+
+        assertTrue(posts.size() <= 10);
+        assertEquals(posts.size(), posts.stream().map(Post::getId).distinct().count());
+    }
+
+    @Test
+    @DisplayName("池重建前被封禁的帖子 - 读取时过滤")
+    void 重建前封禁的帖子不返回() {
+        String bannedLater = normalIds.iterator().next();
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(bannedLater)),
+                Update.update("state", "banned"), Post.class);
+
+        assertFalse(sampleWholePool().contains(bannedLater));
+    }
+}
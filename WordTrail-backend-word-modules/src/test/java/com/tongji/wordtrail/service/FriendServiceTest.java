@@ -0,0 +1,101 @@
+package com.tongji.wordtrail.service;
+
+import com.tongji.wordtrail.model.User;
+import com.tongji.wordtrail.model.UserFriend;
+import com.tongji.wordtrail.repository.UserFriendRepository;
+import com.tongji.wordtrail.repository.UserRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional // 确保测试后自动回滚
+@DisplayName("好友服务测试")
+class FriendServiceTest {
+
+    private static final int FRIEND_COUNT = 20;
+
+    @Autowired
+    private FriendService friendService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserFriendRepository friendRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private String userId;
+
+    @BeforeEach
+    void setUp() {
+        userId = createUser().getUserId();
+        for (int i = 0; i < FRIEND_COUNT; i++) {
+            friendRepository.save(new UserFriend(userId, createUser().getUserId()));
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private User createUser() {
+        String id = UUID.randomUUID().toString();
+        User user = new User();
+        user.setUserId(id);
+        user.setUsername("test-" + id);
+        user.setPassword("password");
+        user.setEmail(id + "@test.com");
+        user.setStatus('1');
+        user.setCreateTime(new Date());
+        user.setUpdateTime(new Date());
+        return userRepository.save(user);
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+
+    @Test
+    @DisplayName("好友列表 - 所有好友资料用一条 IN 查询读取")
+    void 好友列表批量读取资料() {
+        Statistics statistics = statistics();
+
+        List<Map<String, Object>> friends = friendService.getUserFriends(userId);
+
+        assertEquals(FRIEND_COUNT, friends.size());
+        assertTrue(friends.stream().allMatch(friend -> friend.get("username") != null));
+        // 一条查询好友关系 + 一条查询用户资料
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("再次获取好友列表 - 用户资料命中缓存，只查询好友关系")
+    void 好友资料命中缓存() {
+        friendService.getUserFriends(userId);
+        Statistics statistics = statistics();
+
+        friendService.getUserFriends(userId);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
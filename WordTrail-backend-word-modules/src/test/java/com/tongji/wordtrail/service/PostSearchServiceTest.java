@@ -0,0 +1,89 @@
+package com.tongji.wordtrail.service;
+
+import com.tongji.wordtrail.config.MongoIndexInitializer;
+import com.tongji.wordtrail.model.Post;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@DisplayName("帖子全文检索测试")
+class PostSearchServiceTest {
+
+    @Autowired
+    private PostSearchService postSearchService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MongoIndexInitializer mongoIndexInitializer;
+
+    private String userId;
+    // 只出现在测试帖子中的词，避免匹配到已有数据
+    private String marker;
+
+    @BeforeEach
+    void setUp() {
+        mongoIndexInitializer.ensureIndexes(Post.class);
+        userId = "search-test-" + UUID.randomUUID();
+        marker = "mk" + UUID.randomUUID().toString().replace("-", "").replaceAll("[0-9]", "");
+    }
+
+    @AfterEach
+    void tearDown() {
+        mongoTemplate.remove(new Query(Criteria.where("userId").is(userId)), Post.class);
+    }
+
+    private Post save(String title, String content) {
+        return mongoTemplate.save(new Post(title, content, LocalDateTime.now(), LocalDateTime.now(), userId,
+                Collections.emptyList(), 0, 0, 1, null));
+    }
+
+    @Test
+    @DisplayName("中文检索 - 匹配正文中间的词，标题命中排在前面")
+    void 中文检索按相关度排序() {
+        Post inContent = save("学习心得 " + marker, "分享一些背单词的方法");
+        Post inTitle = save("背单词技巧 " + marker, "每天坚持");
+        save("阅读理解 " + marker, "多读文章");
+
+        List<Post> result = postSearchService.search("背单词 " + marker, 1);
+
+        assertEquals(2, result.size());
+        assertEquals(inTitle.getId(), result.get(0).getId());
+        assertEquals(inContent.getId(), result.get(1).getId());
+        assertEquals(2, postSearchService.count("背单词 " + marker));
+    }
+
+    @Test
+    @DisplayName("英文检索 - 忽略大小写，分页返回")
+    void 英文检索分页() {
+        for (int i = 0; i < PostSearchService.PAGE_SIZE + 3; i++) {
+            save("Post " + i, "Learning " + marker.toUpperCase());
+        }
+
+        assertEquals(PostSearchService.PAGE_SIZE, postSearchService.search(marker, 1).size());
+        assertEquals(3, postSearchService.search(marker, 2).size());
+        assertEquals(PostSearchService.PAGE_SIZE + 3, postSearchService.count("learning " + marker));
+    }
+
+    @Test
+    @DisplayName("没有可检索字符的关键词 - 返回空结果")
+    void 空关键词() {
+        assertTrue(postSearchService.search("  !? ", 1).isEmpty());
+        assertEquals(0, postSearchService.count(""));
+    }
+}
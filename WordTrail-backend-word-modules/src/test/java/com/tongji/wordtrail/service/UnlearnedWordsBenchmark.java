@@ -0,0 +1,110 @@
+package com.tongji.wordtrail.service;
+
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 未学习单词选择的基准测试：位图差集（当前实现）与 ArrayList.contains 差集（原实现）随词书大小的变化
+ * 已学习的单词随机分布在词书中，另有少量不在词书中的已学习单词
+ * 运行：在 IDE 中执行 main 方法，或 mvn test-compile 后以测试 classpath 运行本类
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UnlearnedWordsBenchmark {
+
+    private static final int NEXT_N = 20;
+
+    @Param({"1000", "10000", "50000"})
+    private int bookSize;
+
+    // 已学习单词占词书的比例
+    @Param({"0.3"})
+    private double learnedRatio;
+
+    private WordbookIndexService.BookWords bookWords;
+    private List<ObjectId> bookWordIds;
+    private List<ObjectId> learnedWordIds;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        ObjectId[] ids = new ObjectId[bookSize];
+        for (int i = 0; i < bookSize; i++) {
+            ids[i] = new ObjectId();
+        }
+        bookWords = new WordbookIndexService.BookWords(ids);
+        bookWordIds = new ArrayList<>(Arrays.asList(ids));
+
+        learnedWordIds = new ArrayList<>();
+        for (ObjectId id : ids) {
+            if (random.nextDouble() < learnedRatio) {
+                learnedWordIds.add(id);
+            }
+        }
+        // 在其他词书中学习过的单词
+        for (int i = 0; i < bookSize / 10; i++) {
+            learnedWordIds.add(new ObjectId());
+        }
+        Collections.shuffle(learnedWordIds, random);
+    }
+
+    private BitSet learnedPositions() {
+        BitSet learned = new BitSet(bookWords.size());
+        for (ObjectId wordId : learnedWordIds) {
+            WordLearningProgressService.markLearned(bookWords, learned, wordId);
+        }
+        return learned;
+    }
+
+    @Benchmark
+    public List<ObjectId> bitSetNextUnlearned() {
+        return WordLearningProgressService.firstUnlearned(bookWords, learnedPositions(), NEXT_N);
+    }
+
+    @Benchmark
+    public int bitSetUnlearnedCount() {
+        return bookWords.size() - learnedPositions().cardinality();
+    }
+
+    @Benchmark
+    public void listContainsNextUnlearned(Blackhole blackhole) {
+        List<ObjectId> unlearned = new ArrayList<>(NEXT_N);
+        for (ObjectId id : bookWordIds) {
+            if (unlearned.size() >= NEXT_N) {
+                break;
+            }
+            if (!learnedWordIds.contains(id)) {
+                unlearned.add(id);
+            }
+        }
+        blackhole.consume(unlearned);
+    }
+
+    @Benchmark
+    public int listContainsUnlearnedCount() {
+        int count = 0;
+        for (ObjectId id : bookWordIds) {
+            if (!learnedWordIds.contains(id)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(UnlearnedWordsBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,133 @@
+package com.tongji.wordtrail.service;
+
+import com.tongji.wordtrail.config.MongoIndexInitializer;
+import com.tongji.wordtrail.model.Post;
+import com.tongji.wordtrail.model.UserCommunityStats;
+import com.tongji.wordtrail.model.Vote;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@DisplayName("帖子投票测试")
+class VoteServiceTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private VoteService voteService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MongoIndexInitializer mongoIndexInitializer;
+
+    private String authorId;
+    private String postId;
+
+    @BeforeEach
+    void setUp() {
+        mongoIndexInitializer.ensureIndexes(Vote.class);
+        authorId = "vote-test-" + UUID.randomUUID();
+        Post post = new Post("title", "content", LocalDateTime.now(), LocalDateTime.now(), authorId,
+                Collections.emptyList(), 0, 0, 1, null);
+        postId = mongoTemplate.save(post).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        mongoTemplate.remove(new Query(Criteria.where("postId").is(postId)), Vote.class);
+        mongoTemplate.remove(new Query(Criteria.where("_id").is(postId)), Post.class);
+        mongoTemplate.remove(new Query(Criteria.where("_id").is(authorId)), UserCommunityStats.class);
+    }
+
+    private Post reloadPost() {
+        return mongoTemplate.findById(postId, Post.class);
+    }
+
+    private void runConcurrently(List<Callable<Integer>> tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (Future<Integer> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("切换投票 - 赞改为踩再取消，计数随之变化")
+    void 切换投票() {
+        assertEquals(1, voteService.vote(postId, "u1", "true"));
+        assertEquals(1, voteService.vote(postId, "u1", "true"));
+        assertEquals(-1, voteService.vote(postId, "u1", "false"));
+        assertEquals(0, voteService.vote(postId, "u1", null));
+
+        Post post = reloadPost();
+        assertEquals(0, post.getLike());
+        assertEquals(0, post.getDislike());
+        assertEquals(0, mongoTemplate.count(new Query(Criteria.where("postId").is(postId)), Vote.class));
+    }
+
+    @Test
+    @DisplayName("并发投票 - 不同用户同时投票，计数准确")
+    void 并发投票计数准确() throws Exception {
+        int voters = 200;
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int i = 0; i < voters; i++) {
+            String userId = "voter-" + i;
+            String upvote = i % 4 == 0 ? "false" : "true";
+            tasks.add(() -> voteService.vote(postId, userId, upvote));
+        }
+
+        runConcurrently(tasks);
+
+        Post post = reloadPost();
+        assertEquals(150, post.getLike());
+        assertEquals(50, post.getDislike());
+        assertEquals(100, post.getVoteCount());
+        assertEquals(voters, mongoTemplate.count(new Query(Criteria.where("postId").is(postId)), Vote.class));
+    }
+
+    @Test
+    @DisplayName("并发重复投票 - 同一用户同时多次点赞只计一次")
+    void 同一用户并发重复投票() throws Exception {
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            tasks.add(() -> voteService.vote(postId, "same-user", "true"));
+        }
+
+        runConcurrently(tasks);
+
+        Post post = reloadPost();
+        assertEquals(1, post.getLike());
+        assertEquals(1, post.getVoteCount());
+        assertEquals(1, mongoTemplate.count(new Query(Criteria.where("postId").is(postId)), Vote.class));
+    }
+
+    @Test
+    @DisplayName("帖子不存在 - 抛出异常且不留下投票记录")
+    void 帖子不存在() {
+        String missingPostId = postId + "-missing";
+
+        assertThrows(IllegalArgumentException.class, () -> voteService.vote(missingPostId, "u1", "true"));
+        assertEquals(0, mongoTemplate.count(new Query(Criteria.where("postId").is(missingPostId)), Vote.class));
+    }
+}
@@ -0,0 +1,96 @@
+package com.tongji.wordtrail.service;
+
+import com.tongji.wordtrail.cache.InMemoryRemoteCache;
+import com.tongji.wordtrail.cache.TwoTierCacheManager;
+import com.tongji.wordtrail.model.Words;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("单词缓存测试")
+class WordCacheServiceTest {
+
+    private static WordCacheService newCache(int maxSize) {
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext());
+        converter.afterPropertiesSet();
+        return new WordCacheService(new TwoTierCacheManager(new InMemoryRemoteCache(), 60, 600), converter, maxSize);
+    }
+
+    private static Words word(ObjectId id) {
+        Words word = new Words();
+        word.setId(id);
+        word.setWord("w" + id.toHexString());
+        return word;
+    }
+
+    private static List<Words> load(Collection<ObjectId> ids, List<ObjectId> loadedIds) {
+        loadedIds.addAll(ids);
+        return ids.stream().map(WordCacheServiceTest::word).collect(Collectors.toList());
+    }
+
+    @Test
+    @DisplayName("批量读取 - 只为缓存中没有的ID查询，并保持请求顺序")
+    void 批量读取只查询缺失ID() {
+        WordCacheService cache = newCache(100);
+        ObjectId a = new ObjectId();
+        ObjectId b = new ObjectId();
+        ObjectId c = new ObjectId();
+
+        List<ObjectId> loaded = new ArrayList<>();
+        cache.getAll(Arrays.asList(a, b), ids -> load(ids, loaded));
+        loaded.clear();
+
+        List<Words> result = cache.getAll(Arrays.asList(c, a, b), ids -> load(ids, loaded));
+
+        assertEquals(Collections.singletonList(c), loaded);
+        assertEquals(Arrays.asList(c, a, b), result.stream().map(Words::getId).collect(Collectors.toList()));
+        assertEquals(2L, cache.stats().get("hits"));
+        assertEquals(3L, cache.stats().get("misses"));
+    }
+
+    @Test
+    @DisplayName("超过容量 - 从近端淘汰最久未使用的单词，之后由远端缓存命中")
+    void 超过容量淘汰() {
+        WordCacheService cache = newCache(2);
+        ObjectId a = new ObjectId();
+        ObjectId b = new ObjectId();
+        ObjectId c = new ObjectId();
+
+        cache.get(a, WordCacheServiceTest::word);
+        cache.get(b, WordCacheServiceTest::word);
+        cache.get(a, WordCacheServiceTest::word);
+        cache.get(c, WordCacheServiceTest::word);
+
+        assertEquals(2, cache.size());
+        assertEquals(1L, cache.stats().get("evictions"));
+        List<ObjectId> loaded = new ArrayList<>();
+        List<Words> result = cache.getAll(Arrays.asList(a, b), ids -> load(ids, loaded));
+        assertTrue(loaded.isEmpty());
+        assertEquals(Arrays.asList(a, b), result.stream().map(Words::getId).collect(Collectors.toList()));
+        assertEquals(1L, cache.stats().get("remoteHits"));
+    }
+
+    @Test
+    @DisplayName("失效后 - 重新从数据库读取")
+    void 失效后重新读取() {
+        WordCacheService cache = newCache(100);
+        ObjectId a = new ObjectId();
+        cache.get(a, WordCacheServiceTest::word);
+        cache.get(a, WordCacheServiceTest::word);
+
+        cache.invalidate(a);
+
+        List<ObjectId> loaded = new ArrayList<>();
+        cache.getAll(Collections.singletonList(a), ids -> load(ids, loaded));
+        assertEquals(Collections.singletonList(a), loaded);
+        assertEquals(1.0 / 3, (double) cache.stats().get("hitRatio"), 1e-9);
+    }
+}
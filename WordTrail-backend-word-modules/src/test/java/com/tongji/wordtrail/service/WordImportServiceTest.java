@@ -0,0 +1,93 @@
+package com.tongji.wordtrail.service;
+
+import com.tongji.wordtrail.dto.WordImportReport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@DisplayName("批量导入单词测试")
+class WordImportServiceTest {
+
+    @Autowired
+    private WordImportService wordImportService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    // 每次测试使用独立的语言标记，测试结束后清理
+    private final String testLanguage = "test-" + UUID.randomUUID();
+
+    @AfterEach
+    void cleanUp() {
+        mongoTemplate.remove(new Query(Criteria.where("language").is(testLanguage)), "words");
+    }
+
+    private InputStream lines(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("JSON Lines - 文件内重复、非法行和已存在的单词分别统计")
+    void 导入JsonLines() throws Exception {
+        String first = "{\"word\": \"alpha\", \"language\": \"" + testLanguage + "\", \"difficulty\": 1}";
+        String second = "{\"word\": \"beta\", \"language\": \"" + testLanguage + "\", \"difficulty\": 2}";
+
+        WordImportReport report = wordImportService.importWords(lines(
+                first,
+                second,
+                first,
+                "{\"word\": \"gamma\"}",
+                "{\"word\": \"delta\", \"language\": \"" + testLanguage + "\", \"unknownField\": 1}",
+                "not json"
+        ), "jsonl", null, 1);
+
+        assertEquals(6, report.getTotalLines());
+        assertEquals(2, report.getInserted());
+        assertEquals(1, report.getDuplicates());
+        assertEquals(3, report.getInvalid());
+        assertEquals(2, report.getBatches().size());
+        assertEquals(3, report.getErrors().size());
+
+        // 再次导入时全部视为已存在
+        WordImportReport again = wordImportService.importWords(lines(first, second), "jsonl", null, 10);
+        assertEquals(0, again.getInserted());
+        assertEquals(2, again.getDuplicates());
+        assertEquals(2, mongoTemplate.count(new Query(Criteria.where("language").is(testLanguage)), "words"));
+    }
+
+    @Test
+    @DisplayName("CSV - 解析表头、引号字段和列表字段")
+    void 导入Csv() throws Exception {
+        WordImportReport report = wordImportService.importWords(lines(
+                "word,language,difficulty,tags",
+                "apple," + testLanguage + ",1,fruit|food",
+                "\"big, apple\"," + testLanguage + ",2,",
+                "pear," + testLanguage + ",abc,"
+        ), "csv", null, 100);
+
+        assertEquals(2, report.getInserted());
+        assertEquals(1, report.getInvalid());
+        assertTrue(mongoTemplate.exists(new Query(Criteria.where("word").is("big, apple")
+                .and("language").is(testLanguage)), "words"));
+    }
+
+    @Test
+    @DisplayName("CSV 表头包含未知列 - 抛出参数异常")
+    void 未知列() {
+        assertThrows(IllegalArgumentException.class, () -> wordImportService.importWords(
+                lines("word,language,color", "x," + testLanguage + ",red"), "csv", null, 100));
+    }
+}
@@ -0,0 +1,343 @@
+package com.tongji.wordtrail.service;
+
+import com.tongji.wordtrail.dto.BatchLearningResponse;
+import com.tongji.wordtrail.dto.ReviewItemRequest;
+import com.tongji.wordtrail.dto.ReviewQueuePage;
+import com.tongji.wordtrail.model.LearningRecord;
+import com.tongji.wordtrail.model.ReviewHistoryArchive;
+import com.tongji.wordtrail.model.WordLearningProgress;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@DisplayName("单词学习进度服务测试")
+class WordLearningProgressServiceTest {
+
+    @Autowired
+    private WordLearningProgressService learningProgressService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private WordbookIndexService wordbookIndexService;
+
+    private static final ObjectId VALID_WORD_ID = new ObjectId("67fa0e2c2c0bf3230b6d9f95");
+
+    // 每次测试使用独立的用户，测试结束后清理
+    private final String testUserId = "test-" + UUID.randomUUID();
+
+    @AfterEach
+    void cleanUp() {
+        Query byUser = new Query(Criteria.where("userId").is(testUserId));
+        mongoTemplate.remove(byUser, WordLearningProgress.class);
+        mongoTemplate.remove(byUser, ReviewHistoryArchive.class);
+        mongoTemplate.remove(byUser, LearningRecord.class);
+    }
+
+    @Nested
+    @DisplayName("并发记录复习结果")
+    class ConcurrentReviewTests {
+
+        @Test
+        @DisplayName("多线程同时复习同一个单词 - 验证复习记录不丢失")
+        void 并发复习不丢失记录() throws Exception {
+            learningProgressService.startLearningWord(testUserId, VALID_WORD_ID);
+
+            int threads = 8;
+            int reviewsPerThread = 10;
+            int totalReviews = threads * reviewsPerThread;
+
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                final boolean remembered = t % 2 == 0;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < reviewsPerThread; i++) {
+                        assertNotNull(learningProgressService.recordReviewResult(testUserId, VALID_WORD_ID, remembered));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            executor.shutdown();
+
+            WordLearningProgress progress = learningProgressService.getWordProgress(testUserId, VALID_WORD_ID)
+                    .orElseThrow(AssertionError::new);
+            assertEquals(totalReviews, progress.getTotalReviews());
+            assertEquals(totalReviews / 2, progress.getSuccessfulReviews());
+            assertEquals(WordLearningProgress.MAX_REVIEW_HISTORY, progress.getReviewHistory().size());
+
+            long archived = mongoTemplate.count(new Query(Criteria.where("userId").is(testUserId)
+                    .and("wordId").is(VALID_WORD_ID)), ReviewHistoryArchive.class);
+            assertEquals(totalReviews, archived);
+        }
+
+        @Test
+        @DisplayName("连续记住 - 验证阶段和熟练度不超过上限")
+        void 阶段和熟练度有上限() {
+            learningProgressService.startLearningWord(testUserId, VALID_WORD_ID);
+
+            WordLearningProgress returned = null;
+            for (int i = 0; i < 15; i++) {
+                returned = learningProgressService.recordReviewResult(testUserId, VALID_WORD_ID, true);
+            }
+
+            WordLearningProgress stored = learningProgressService.getWordProgress(testUserId, VALID_WORD_ID)
+                    .orElseThrow(AssertionError::new);
+            assertEquals(5, stored.getReviewStage());
+            assertEquals(1.0, stored.getProficiency(), 1e-9);
+            assertEquals(stored.getReviewStage(), returned.getReviewStage());
+            assertEquals(stored.getProficiency(), returned.getProficiency(), 1e-9);
+            assertEquals(stored.getNextReviewTime(), returned.getNextReviewTime());
+        }
+    }
+
+    @Nested
+    @DisplayName("分页获取复习队列")
+    class ReviewQueueTests {
+
+        private static final long DAY = 24L * 60 * 60 * 1000;
+
+        private void saveProgress(Date now, long overdueDays, double proficiency) {
+            WordLearningProgress progress = new WordLearningProgress(testUserId, new ObjectId());
+            progress.setProficiency(proficiency);
+            progress.setLastReviewTime(new Date(now.getTime() - (overdueDays + 2) * DAY));
+            progress.setNextReviewTime(new Date(now.getTime() - overdueDays * DAY));
+            mongoTemplate.insert(progress);
+        }
+
+        @Test
+        @DisplayName("逐页读取 - 验证按逾期时间和熟练度排序且不重复不遗漏")
+        void 分页读取复习队列() {
+            // 使用同一个 now，逾期天数相同的记录 nextReviewTime 相同，按熟练度排序
+            Date now = new Date();
+            saveProgress(now, 5, 0.6);
+            saveProgress(now, 5, 0.2);
+            saveProgress(now, 3, 0.1);
+            saveProgress(now, 1, 0.9);
+            saveProgress(now, 1, 0.4);
+
+            List<ReviewQueuePage.Item> all = new ArrayList<>();
+            String cursor = null;
+            int pages = 0;
+            do {
+                ReviewQueuePage page = learningProgressService.getReviewQueue(testUserId, null, "Asia/Shanghai", cursor, 2);
+                all.addAll(page.getItems());
+                cursor = page.getNextCursor();
+                pages++;
+            } while (cursor != null);
+
+            assertEquals(3, pages);
+            assertEquals(5, all.size());
+            double[] expected = {0.2, 0.6, 0.1, 0.4, 0.9};
+            for (int i = 0; i < expected.length; i++) {
+                assertEquals(expected[i], all.get(i).getProficiency(), 1e-9);
+            }
+        }
+
+        @Test
+        @DisplayName("非法时区或游标 - 验证抛出参数异常")
+        void 非法参数() {
+            assertThrows(IllegalArgumentException.class,
+                    () -> learningProgressService.getReviewQueue(testUserId, null, "Not/AZone", null, 10));
+            assertThrows(IllegalArgumentException.class,
+                    () -> learningProgressService.getReviewQueue(testUserId, null, null, "!!!", 10));
+            assertThrows(IllegalArgumentException.class,
+                    () -> learningProgressService.getReviewQueue(testUserId, null, null, null, 0));
+        }
+    }
+
+    @Nested
+    @DisplayName("词书中的未学习单词")
+    class UnlearnedWordsTests {
+
+        private final ObjectId bookId = new ObjectId();
+
+        @AfterEach
+        void removeBook() {
+            mongoTemplate.remove(new Query(Criteria.where("_id").is(bookId)), "user_wordbooks");
+            wordbookIndexService.invalidate(bookId);
+        }
+
+        @Test
+        @DisplayName("已学习单词分散在词书中 - 验证按词书顺序取前 N 个未学习单词和未学习总数")
+        void 未学习单词() {
+            List<ObjectId> bookWordIds = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                bookWordIds.add(new ObjectId());
+            }
+            mongoTemplate.insert(new Document("_id", bookId).append("words", bookWordIds), "user_wordbooks");
+            for (int position : new int[]{0, 2, 3, 7, 9}) {
+                mongoTemplate.insert(new WordLearningProgress(testUserId, bookWordIds.get(position)));
+            }
+            // 不在词书中的已学习单词不影响结果
+            mongoTemplate.insert(new WordLearningProgress(testUserId, new ObjectId()));
+
+            List<String> next = learningProgressService.getNewWordsFromBook(testUserId, bookId, 3);
+            assertEquals(Arrays.asList(bookWordIds.get(1).toString(), bookWordIds.get(4).toString(),
+                    bookWordIds.get(5).toString()), next);
+
+            assertEquals(5, learningProgressService.getNewWordsCountFromBook(testUserId, bookId));
+
+            List<ObjectId> unlearned = new ArrayList<>();
+            for (WordLearningProgress progress : learningProgressService.getUnlearnedWordsFromBook(testUserId, bookId)) {
+                unlearned.add(progress.getWordId());
+            }
+            assertEquals(Arrays.asList(bookWordIds.get(1), bookWordIds.get(4), bookWordIds.get(5),
+                    bookWordIds.get(6), bookWordIds.get(8)), unlearned);
+
+            // 请求数量超过未学习单词数时只返回全部未学习单词
+            assertEquals(5, learningProgressService.getNewWordsFromBook(testUserId, bookId, 20).size());
+        }
+    }
+
+    @Nested
+    @DisplayName("批量开始学习和批量复习")
+    class BatchTests {
+
+        private String statusOf(BatchLearningResponse response, int index) {
+            return response.getResults().get(index).getStatus();
+        }
+
+        @Test
+        @DisplayName("批量开始学习 - 新建、已存在、非法和重复的单词分别返回结果，只写一条学习记录")
+        void 批量开始学习() {
+            ObjectId newWord = new ObjectId();
+            ObjectId startedWord = new ObjectId();
+            learningProgressService.startLearningWord(testUserId, startedWord);
+
+            BatchLearningResponse response = learningProgressService.startLearningWords(testUserId, Arrays.asList(
+                    newWord.toHexString(), startedWord.toHexString(), "not-an-id", newWord.toHexString()));
+
+            assertEquals(4, response.getResults().size());
+            assertEquals("created", statusOf(response, 0));
+            assertEquals("exists", statusOf(response, 1));
+            assertEquals("invalid", statusOf(response, 2));
+            assertEquals("exists", statusOf(response, 3));
+            assertEquals(3, response.getSucceeded());
+            assertEquals(1, response.getFailed());
+
+            // 同一个单词只有一条学习进度，且不写入仅用于内存的 fromDatabase 标记
+            List<Document> documents = mongoTemplate.find(new Query(Criteria.where("userId").is(testUserId)
+                    .and("wordId").is(newWord)), Document.class, "word_learning_progress");
+            assertEquals(1, documents.size());
+            assertFalse(documents.get(0).containsKey("fromDatabase"));
+            assertEquals(0, documents.get(0).getInteger("reviewStage").intValue());
+
+            List<LearningRecord> records = mongoTemplate.find(new Query(Criteria.where("userId").is(testUserId)
+                    .and("words.wordId").is(newWord)), LearningRecord.class);
+            assertEquals(1, records.size());
+            assertEquals(1, records.get(0).getCount().intValue());
+        }
+
+        @Test
+        @DisplayName("批量复习 - 重复单词依次生效，未开始学习和非法的单词单独报告")
+        void 批量复习() {
+            ObjectId word = new ObjectId();
+            learningProgressService.startLearningWord(testUserId, word);
+
+            BatchLearningResponse response = learningProgressService.recordReviewResults(testUserId, Arrays.asList(
+                    review(word.toHexString(), true),
+                    review(word.toHexString(), true),
+                    review(new ObjectId().toHexString(), true),
+                    review("not-an-id", false)));
+
+            assertEquals("reviewed", statusOf(response, 0));
+            assertEquals("reviewed", statusOf(response, 1));
+            assertEquals("not_found", statusOf(response, 2));
+            assertEquals("invalid", statusOf(response, 3));
+            assertEquals(2, response.getSucceeded());
+            assertEquals(2, response.getFailed());
+
+            WordLearningProgress progress = learningProgressService.getWordProgress(testUserId, word)
+                    .orElseThrow(AssertionError::new);
+            assertEquals(2, progress.getTotalReviews());
+            assertEquals(2, progress.getReviewStage());
+            assertEquals(2, mongoTemplate.count(new Query(Criteria.where("userId").is(testUserId)
+                    .and("wordId").is(word)), ReviewHistoryArchive.class));
+        }
+
+        @Test
+        @DisplayName("批量复习部分失败 - 失败之后的条目标记为跳过且不归档")
+        void 批量复习部分失败() {
+            ObjectId word = new ObjectId();
+            ObjectId broken = new ObjectId();
+            learningProgressService.startLearningWord(testUserId, word);
+            // reviewStage 不是数字，更新管道中的 $add 会失败
+            mongoTemplate.insert(new Document("userId", testUserId).append("wordId", broken)
+                    .append("reviewStage", "broken").append("totalReviews", 0), "word_learning_progress");
+
+            BatchLearningResponse response = learningProgressService.recordReviewResults(testUserId, Arrays.asList(
+                    review(word.toHexString(), true),
+                    review(broken.toHexString(), true),
+                    review(word.toHexString(), true)));
+
+            assertEquals("reviewed", statusOf(response, 0));
+            assertEquals("failed", statusOf(response, 1));
+            assertNotNull(response.getResults().get(1).getMessage());
+            assertEquals("skipped", statusOf(response, 2));
+            assertEquals(1, response.getSucceeded());
+
+            WordLearningProgress progress = learningProgressService.getWordProgress(testUserId, word)
+                    .orElseThrow(AssertionError::new);
+            assertEquals(1, progress.getTotalReviews());
+            assertEquals(1, mongoTemplate.count(new Query(Criteria.where("userId").is(testUserId)), ReviewHistoryArchive.class));
+        }
+
+        @Test
+        @DisplayName("空批次或超过上限 - 验证抛出参数异常")
+        void 批次大小() {
+            List<String> tooMany = new ArrayList<>();
+            List<ReviewItemRequest> tooManyReviews = new ArrayList<>();
+            for (int i = 0; i <= WordLearningProgressService.MAX_BATCH_SIZE; i++) {
+                tooMany.add(new ObjectId().toHexString());
+                tooManyReviews.add(review(new ObjectId().toHexString(), true));
+            }
+
+            assertThrows(IllegalArgumentException.class,
+                    () -> learningProgressService.startLearningWords(testUserId, new ArrayList<>()));
+            assertThrows(IllegalArgumentException.class,
+                    () -> learningProgressService.startLearningWords(testUserId, tooMany));
+            assertThrows(IllegalArgumentException.class,
+                    () -> learningProgressService.recordReviewResults(testUserId, new ArrayList<>()));
+            assertThrows(IllegalArgumentException.class,
+                    () -> learningProgressService.recordReviewResults(testUserId, tooManyReviews));
+            assertEquals(0, mongoTemplate.count(new Query(Criteria.where("userId").is(testUserId)),
+                    WordLearningProgress.class));
+        }
+
+        private ReviewItemRequest review(String wordId, boolean remembered) {
+            ReviewItemRequest review = new ReviewItemRequest();
+            review.setWordId(wordId);
+            review.setRemembered(remembered);
+            return review;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.tongji.wordtrail.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tongji.wordtrail.model.Words;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单词读取路径的基准测试：每次操作读取 1000 个单词并用 Jackson 序列化
+ * documentToMap 是原来的 Document -> HashMap 转换，typedWords 是当前直接解码为 Words 的路径
+ * 两者都从驱动收到的原始 BSON 开始；配合 GC profiler 的 gc.alloc.rate.norm 即为每 1k 单词的分配量
+ * 运行：在 IDE 中执行 main 方法，或 mvn test-compile 后以测试 classpath 运行本类
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WordReadPathBenchmark {
+
+    private static final int WORDS = 1000;
+
+    private final DocumentCodec documentCodec = new DocumentCodec();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private MappingMongoConverter converter;
+    private List<RawBsonDocument> rows;
+
+    @Setup
+    public void setUp() {
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.afterPropertiesSet();
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.afterPropertiesSet();
+
+        rows = new ArrayList<>(WORDS);
+        for (int i = 0; i < WORDS; i++) {
+            rows.add(new RawBsonDocument(wordDocument(i), documentCodec));
+        }
+    }
+
+    private static Document wordDocument(int i) {
+        Document example = new Document("sentence", "This is example sentence number " + i + ".")
+                .append("translation", "这是第 " + i + " 个例句。");
+        Document partOfSpeech = new Document("type", "n.")
+                .append("definitions", Arrays.asList("definition " + i, "another definition " + i))
+                .append("examples", Collections.singletonList(example));
+        Document phonetic = new Document("ipa", "/wɜːd" + i + "/")
+                .append("audio", "https://example.com/audio/" + i + ".mp3");
+        return new Document("_id", new ObjectId())
+                .append("word", "word" + i)
+                .append("language", "en")
+                .append("difficulty", i % 5)
+                .append("synonyms", Arrays.asList("synonym" + i, "alias" + i))
+                .append("antonyms", Collections.singletonList("antonym" + i))
+                .append("tags", Arrays.asList("cet4", "common"))
+                .append("phonetics", Collections.singletonList(phonetic))
+                .append("partOfSpeechList", Collections.singletonList(partOfSpeech));
+    }
+
+    @Benchmark
+    public byte[] documentToMap() throws JsonProcessingException {
+        List<Map<String, Object>> words = new ArrayList<>(rows.size());
+        for (RawBsonDocument row : rows) {
+            words.add(convertDocumentToMap(row.decode(documentCodec)));
+        }
+        return objectMapper.writeValueAsBytes(words);
+    }
+
+    @Benchmark
+    public byte[] typedWords() throws JsonProcessingException {
+        List<Words> words = new ArrayList<>(rows.size());
+        for (RawBsonDocument row : rows) {
+            words.add(converter.read(Words.class, row.decode(documentCodec)));
+        }
+        return objectMapper.writeValueAsBytes(words);
+    }
+
+    /**
+     * 原 WordService.convertDocumentToMap 的实现
+     */
+    private static Map<String, Object> convertDocumentToMap(Document document) {
+        Map<String, Object> result = new HashMap<>();
+        for (Map.Entry<String, Object> entry : document.entrySet()) {
+            if (entry.getKey().equals("_id")) {
+                if (entry.getValue() instanceof ObjectId) {
+                    result.put("id", ((ObjectId) entry.getValue()).toString());
+                } else {
+                    try {
+                        result.put("id", new ObjectId(entry.getValue().toString()).toString());
+                    } catch (Exception e) {
+                        result.put("id", entry.getValue().toString());
+                    }
+                }
+            } else {
+                result.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return result;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(WordReadPathBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,122 @@
+package com.tongji.wordtrail.service;
+
+import com.tongji.wordtrail.dto.WordImportReport;
+import com.tongji.wordtrail.model.Words;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@DisplayName("词书导出测试")
+class WordbookExportServiceTest {
+
+    private static final ObjectId VALID_BOOK_ID = new ObjectId("67eb986cc015ca11e33b4e86");
+
+    @Autowired
+    private WordbookExportService wordbookExportService;
+
+    @Autowired
+    private WordbookIndexService wordbookIndexService;
+
+    @Autowired
+    private WordImportService wordImportService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Test
+    @DisplayName("JSON Lines - 每个单词一行")
+    void 导出JsonLines() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        wordbookExportService.export(VALID_BOOK_ID, "jsonl", false).writeTo(output);
+
+        String[] lines = output.toString(StandardCharsets.UTF_8.name()).split("\n");
+        assertTrue(lines.length > 0);
+        assertTrue(lines.length <= wordbookIndexService.getBookWords(VALID_BOOK_ID).size());
+        assertTrue(lines[0].startsWith("{"));
+    }
+
+    @Test
+    @DisplayName("gzip 压缩的 CSV - 解压后第一行是表头")
+    void 导出压缩CSV() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        wordbookExportService.export(VALID_BOOK_ID, "csv", true).writeTo(output);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new ByteArrayInputStream(output.toByteArray())), StandardCharsets.UTF_8))) {
+            assertEquals("word,language,difficulty,synonyms,antonyms,tags", reader.readLine());
+            assertNotNull(reader.readLine());
+        }
+    }
+
+    @Test
+    @DisplayName("格式不支持或词书不存在 - 在写出前抛出异常")
+    void 非法参数() {
+        assertThrows(IllegalArgumentException.class,
+                () -> wordbookExportService.export(VALID_BOOK_ID, "xml", false));
+        assertThrows(IllegalArgumentException.class,
+                () -> wordbookExportService.export(new ObjectId(), "jsonl", false));
+    }
+
+    @Test
+    @DisplayName("导出再导入 - JSON Lines 和 CSV 导出的文件都可以直接导入")
+    void 导出再导入() throws Exception {
+        String language = "test-" + UUID.randomUUID();
+        ObjectId bookId = new ObjectId();
+        try {
+            List<ObjectId> wordIds = new ArrayList<>();
+            for (String text : Arrays.asList("alpha", "beta, gamma")) {
+                Words word = new Words();
+                word.setWord(text);
+                word.setLanguage(language);
+                word.setDifficulty(2);
+                word.setTags(Arrays.asList("fruit", "food"));
+                wordIds.add(mongoTemplate.insert(word).getId());
+            }
+            mongoTemplate.insert(new Document("_id", bookId).append("words", wordIds), "user_wordbooks");
+
+            Map<String, byte[]> exported = new LinkedHashMap<>();
+            for (String format : Arrays.asList("jsonl", "csv")) {
+                ByteArrayOutputStream output = new ByteArrayOutputStream();
+                wordbookExportService.export(bookId, format, false).writeTo(output);
+                exported.put(format, output.toByteArray());
+            }
+
+            for (Map.Entry<String, byte[]> entry : exported.entrySet()) {
+                String format = entry.getKey();
+                mongoTemplate.remove(new Query(Criteria.where("language").is(language)), Words.class);
+
+                WordImportReport report = wordImportService.importWords(
+                        new ByteArrayInputStream(entry.getValue()), format, null, 100);
+
+                assertEquals(0, report.getInvalid(), format);
+                assertEquals(2, report.getInserted(), format);
+                Words imported = mongoTemplate.findOne(new Query(Criteria.where("language").is(language)
+                        .and("word").is("beta, gamma")), Words.class);
+                assertNotNull(imported, format);
+                assertEquals(2, imported.getDifficulty(), format);
+                assertEquals(Arrays.asList("fruit", "food"), imported.getTags(), format);
+            }
+        } finally {
+            mongoTemplate.remove(new Query(Criteria.where("language").is(language)), Words.class);
+            mongoTemplate.remove(new Query(Criteria.where("_id").is(bookId)), "user_wordbooks");
+            wordbookIndexService.invalidate(bookId);
+        }
+    }
+}